@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/actions/{matchId}")
 @RequiredArgsConstructor
@@ -56,4 +58,25 @@ public class ActionController {
                 ? ResponseEntity.accepted().body(res)
                 : ResponseEntity.badRequest().body(res);
     }
+
+    @GetMapping("/history")
+    public ResponseEntity<List<ActionEventResponse>> history(@PathVariable Long matchId) {
+        return ResponseEntity.ok(gameActionService.history(matchId));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(
+            @PathVariable Long matchId,
+            @RequestBody BatchActionRequest req
+    ) {
+        var err = gameActionService.validateBatch(req);
+        if (err.isPresent()) {
+            return ResponseEntity.badRequest().body(err.get());
+        }
+        BatchActionResponse res = gameActionService.batch(matchId, req);
+        if (res.getApplied() == res.getResults().size()) return ResponseEntity.accepted().body(res);
+        // Only non-atomic batches keep the actions before a failure, which makes them a partial success.
+        if (res.getApplied() > 0) return ResponseEntity.status(207).body(res);
+        return ResponseEntity.badRequest().body(res);
+    }
 }
@@ -1,11 +1,13 @@
 package com.strategygameapp.controller;
 
-import com.strategygameapp.dto.board.BoardResponse;
 import com.strategygameapp.dto.board.CellResponse;
 import com.strategygameapp.service.BoardService;
+import com.strategygameapp.service.MatchStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/board/{matchId}")
@@ -13,10 +15,27 @@ import org.springframework.web.bind.annotation.*;
 public class BoardController {
 
     private final BoardService boardService;
+    private final MatchStreamService streamService;
 
     @GetMapping
-    public ResponseEntity<BoardResponse> getBoard(@PathVariable Long matchId) {
+    public ResponseEntity<byte[]> getBoard(
+            @PathVariable Long matchId,
+            @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch
+    ) {
         return boardService.getBoard(matchId)
+                .map(b -> b.matches(ifNoneMatch)
+                        ? ResponseEntity.status(304).eTag(b.etag()).<byte[]>build()
+                        : ResponseEntity.ok().eTag(b.etag()).contentType(MediaType.APPLICATION_JSON).body(b.json()))
+                .orElseGet(() -> ResponseEntity.status(404).build());
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @PathVariable Long matchId,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) Long lastSeq
+    ) {
+        return streamService.open(matchId, lastEventId != null ? lastEventId : lastSeq)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.status(404).build());
     }
@@ -4,6 +4,7 @@ import com.strategygameapp.dto.match.CreateMatchRequest;
 import com.strategygameapp.dto.match.MatchResponse;
 import com.strategygameapp.model.Match;
 import com.strategygameapp.service.MatchService;
+import com.strategygameapp.service.ReplayService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,6 +18,7 @@ import java.util.stream.Collectors;
 public class MatchController {
 
     private final MatchService matchService;
+    private final ReplayService replayService;
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody CreateMatchRequest req) {
@@ -50,6 +52,17 @@ public class MatchController {
         return opt.map(match -> ResponseEntity.ok(toResponse(match))).orElseGet(() -> ResponseEntity.status(404).build());
     }
 
+    @GetMapping("/{id}/replay")
+    public ResponseEntity<?> replay(@PathVariable Long id, @RequestParam(required = false) Long seq) {
+        try {
+            return replayService.replay(id, seq)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(404).build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(e.getMessage());
+        }
+    }
+
     @GetMapping
     public ResponseEntity<List<MatchResponse>> list(@RequestParam(required = false) String status) {
         List<Match> matches = matchService.list(status);
@@ -64,6 +77,9 @@ public class MatchController {
                 m.getPlayers(),
                 m.getWidth(),
                 m.getHeight(),
+                m.getSeed(),
+                m.getMapGenerator(),
+                m.getRuleset(),
                 m.getCurrentTurn(),
                 m.getWinnerSeat(),
                 m.getCreatedAt(),
@@ -4,12 +4,10 @@ import com.strategygameapp.dto.player.PlayerResponse;
 import com.strategygameapp.model.MatchPlayer;
 import com.strategygameapp.service.PlayerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 @RestController
 @RequestMapping("/api/players/{matchId}")
 @RequiredArgsConstructor
@@ -18,10 +16,8 @@ public class PlayerController {
     private final PlayerService playerService;
 
     @GetMapping
-    public ResponseEntity<List<PlayerResponse>> list(@PathVariable Long matchId) {
-        List<MatchPlayer> players = playerService.list(matchId);
-        List<PlayerResponse> out = players.stream().map(this::toResponse).collect(Collectors.toList());
-        return ResponseEntity.ok(out);
+    public ResponseEntity<byte[]> list(@PathVariable Long matchId) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(playerService.listJson(matchId));
     }
 
     @GetMapping("/{seat}")
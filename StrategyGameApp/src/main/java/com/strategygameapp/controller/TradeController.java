@@ -21,9 +21,11 @@ public class TradeController {
     @GetMapping
     public ResponseEntity<List<TradeResponse>> list(
             @PathVariable Long matchId,
-            @RequestParam(required = false) String status
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer to
     ) {
-        List<TradeOffer> offers = tradeService.list(matchId, status);
+        List<TradeOffer> offers = tradeService.list(matchId, status, from, to);
         return ResponseEntity.ok(offers.stream().map(tradeService::toResponse).toList());
     }
 
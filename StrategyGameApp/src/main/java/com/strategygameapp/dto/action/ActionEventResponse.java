@@ -0,0 +1,18 @@
+package com.strategygameapp.dto.action;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+
+@Data
+@AllArgsConstructor
+public class ActionEventResponse {
+    private long seq;
+    private String type;
+    private int playerSeat;
+    private Integer x;
+    private Integer y;
+    private String message;
+    private String payload;
+    private OffsetDateTime ts;
+}
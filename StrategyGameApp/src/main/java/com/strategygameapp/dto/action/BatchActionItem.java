@@ -0,0 +1,11 @@
+package com.strategygameapp.dto.action;
+import com.strategygameapp.model.enums.ActionType;
+import lombok.Data;
+
+@Data
+public class BatchActionItem {
+    private ActionType type;
+    private int playerId;
+    private int x;
+    private int y;
+}
@@ -0,0 +1,12 @@
+package com.strategygameapp.dto.action;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchActionRequest {
+    private List<BatchActionItem> actions;
+    // All or nothing by default; stopOnFailure only applies to non-atomic batches, whose earlier actions stay applied.
+    private boolean atomic = true;
+    private boolean stopOnFailure = true;
+}
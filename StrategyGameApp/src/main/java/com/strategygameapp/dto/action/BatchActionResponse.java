@@ -0,0 +1,13 @@
+package com.strategygameapp.dto.action;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchActionResponse {
+    private int applied;
+    private List<ActionResultResponse> results;
+    private String traceId;
+}
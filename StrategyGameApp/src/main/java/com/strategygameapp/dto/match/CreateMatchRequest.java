@@ -9,4 +9,7 @@ public class CreateMatchRequest {
     private int width;
     private int height;
     private List<Boolean> bots;
+    private Long seed;
+    private String mapGenerator;
+    private String ruleset;
 }
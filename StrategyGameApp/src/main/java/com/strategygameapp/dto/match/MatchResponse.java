@@ -13,6 +13,9 @@ public class MatchResponse {
     private int players;
     private int width;
     private int height;
+    private Long seed;
+    private String mapGenerator;
+    private String ruleset;
     private Integer currentTurn;
     private Integer winner;
     private OffsetDateTime createdAt;
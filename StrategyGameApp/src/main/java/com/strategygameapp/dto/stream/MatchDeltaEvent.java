@@ -0,0 +1,19 @@
+package com.strategygameapp.dto.stream;
+
+import com.strategygameapp.dto.board.CellResponse;
+import com.strategygameapp.dto.player.PlayerResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MatchDeltaEvent {
+    private long seq;
+    private List<CellResponse> cells;
+    private List<PlayerResponse> players;
+    private String status;
+    private Integer currentTurn;
+    private Integer winner;
+}
@@ -0,0 +1,12 @@
+package com.strategygameapp.dto.stream;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MatchEndedEvent {
+    private long seq;
+    private String status;
+    private Integer winner;
+}
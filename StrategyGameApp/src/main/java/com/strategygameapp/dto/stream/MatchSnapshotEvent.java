@@ -0,0 +1,19 @@
+package com.strategygameapp.dto.stream;
+
+import com.strategygameapp.dto.board.BoardResponse;
+import com.strategygameapp.dto.player.PlayerResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class MatchSnapshotEvent {
+    private long seq;
+    private String status;
+    private Integer currentTurn;
+    private Integer winner;
+    private BoardResponse board;
+    private List<PlayerResponse> players;
+}
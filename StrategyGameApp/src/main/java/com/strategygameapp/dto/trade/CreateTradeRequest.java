@@ -2,11 +2,17 @@ package com.strategygameapp.dto.trade;
 
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
 public class CreateTradeRequest {
     private Integer from;
     private Integer to;
     private String give;
     private String get;
+    private Integer giveAmount;
+    private Integer getAmount;
+    private Map<String, Integer> giveBundle;
+    private Map<String, Integer> getBundle;
     private Long ttlMs;
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 
 import java.time.OffsetDateTime;
+import java.util.Map;
 
 @Data
 @AllArgsConstructor
@@ -14,6 +15,8 @@ public class TradeResponse {
     private int to;
     private String give;
     private String get;
+    private Map<String, Integer> giveBundle;
+    private Map<String, Integer> getBundle;
     private String status;
     private OffsetDateTime createdAt;
     private OffsetDateTime expiresAt;
@@ -0,0 +1,79 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ActionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** Gzip-compressed binary form of one match's action records, as stored in action_archives. */
+final class ActionArchiveCodec {
+
+    private static final int FORMAT = 2;
+
+    private ActionArchiveCodec() {}
+
+    static byte[] encode(List<ActionRecord> records) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(FORMAT);
+            out.writeInt(records.size());
+            for (ActionRecord r : records) {
+                out.writeLong(r.seq());
+                out.writeUTF(r.type().name());
+                out.writeInt(r.seat());
+                out.writeInt(r.x());
+                out.writeInt(r.y());
+                out.writeLong(r.ts().toInstant().toEpochMilli());
+                writeOptional(out, r.message());
+                writeOptional(out, r.payload());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<ActionRecord> decode(long matchId, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+            int format = in.readInt();
+            if (format < 1 || format > FORMAT) throw new IllegalStateException("Unknown action archive format " + format);
+            int n = in.readInt();
+            List<ActionRecord> records = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                // Format 1 predates the command log fields.
+                long seq = format >= 2 ? in.readLong() : 0;
+                ActionType type = ActionType.valueOf(in.readUTF());
+                int seat = in.readInt();
+                int x = format >= 2 ? in.readInt() : -1;
+                int y = format >= 2 ? in.readInt() : -1;
+                OffsetDateTime ts = Instant.ofEpochMilli(in.readLong()).atOffset(ZoneOffset.UTC);
+                String message = readOptional(in);
+                String payload = format >= 2 ? readOptional(in) : null;
+                records.add(new ActionRecord(matchId, seq, seat, type, x, y, message, payload, ts));
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeOptional(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readOptional(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.strategygameapp.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls the action log of settled matches out of action_events into one compressed action_archives row
+ * per match, keeping the hot table down to matches that are still being played.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActionArchiver {
+
+    private static final String SELECT_SETTLED = """
+            SELECT m.id FROM matches m
+            WHERE m.status IN ('FINISHED', 'CANCELLED')
+              AND COALESCE(m.finished_at, m.created_at) < ?
+              AND EXISTS (SELECT 1 FROM action_events a WHERE a.match_id = m.id)
+            ORDER BY m.id
+            LIMIT ?
+            """;
+    private static final String UPSERT_ARCHIVE = """
+            INSERT INTO action_archives (match_id, event_count, last_seq, first_ts, last_ts, data)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (match_id) DO UPDATE SET
+                event_count = EXCLUDED.event_count,
+                last_seq = EXCLUDED.last_seq,
+                first_ts = EXCLUDED.first_ts,
+                last_ts = EXCLUDED.last_ts,
+                data = EXCLUDED.data
+            """;
+    private static final String DELETE_EVENTS =
+            "DELETE FROM action_events WHERE match_id = ? AND id <= ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ActionHistory history;
+
+    @Value("${game.actions.archive.interval-ms:60000}")
+    private long intervalMs;
+
+    @Value("${game.actions.archive.grace-ms:600000}")
+    private long graceMs;
+
+    @Value("${game.actions.archive.batch-size:100}")
+    private int batchSize;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "action-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::archiveQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public int archiveSettled() {
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(Duration.ofMillis(graceMs));
+        List<Long> ids = jdbc.queryForList(SELECT_SETTLED, Long.class, cutoff, batchSize);
+        for (Long id : ids) {
+            tx.executeWithoutResult(status -> archive(id));
+        }
+        return ids.size();
+    }
+
+    private void archive(long matchId) {
+        long[] maxId = {0};
+        List<ActionRecord> fresh = history.live(matchId, maxId);
+        if (fresh.isEmpty()) return;
+
+        // Rows that reach the log after a match was archived get merged into the existing archive.
+        List<ActionRecord> all = new ArrayList<>(history.archived(matchId));
+        all.addAll(fresh);
+
+        ActionRecord last = all.get(all.size() - 1);
+        jdbc.update(UPSERT_ARCHIVE, matchId, all.size(), last.seq(), all.get(0).ts(), last.ts(),
+                ActionArchiveCodec.encode(all));
+        jdbc.update(DELETE_EVENTS, matchId, maxId[0]);
+    }
+
+    private void archiveQuietly() {
+        try {
+            int n = archiveSettled();
+            if (n > 0) log.debug("Archived action log of {} matches", n);
+        } catch (RuntimeException e) {
+            log.warn("Action log archiving failed, will retry: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ActionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Reads a match's action log wherever it currently lives: the archive first, then any live rows. */
+@Component
+@RequiredArgsConstructor
+public class ActionHistory {
+
+    private static final String SELECT_ARCHIVE =
+            "SELECT data FROM action_archives WHERE match_id = ?";
+    private static final String SELECT_EVENTS =
+            "SELECT id, seq, type, player_seat, x, y, message, payload, ts FROM action_events WHERE match_id = ? ORDER BY seq, id";
+
+    // Tails of many matches at once: each match's entries after its own starting position.
+    private static final String SELECT_TAILS = """
+            SELECT e.id, e.seq, e.type, e.player_seat, e.x, e.y, e.message, e.payload, e.ts, e.match_id
+            FROM action_events e
+            JOIN unnest(?::bigint[], ?::bigint[]) AS t(match_id, after_seq)
+              ON e.match_id = t.match_id AND e.seq > t.after_seq
+            ORDER BY e.match_id, e.seq, e.id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public List<ActionRecord> read(long matchId) {
+        List<ActionRecord> out = new ArrayList<>(archived(matchId));
+        out.addAll(live(matchId, null));
+        return out;
+    }
+
+    List<ActionRecord> archived(long matchId) {
+        List<byte[]> data = jdbc.query(SELECT_ARCHIVE, (rs, i) -> rs.getBytes(1), matchId);
+        return data.isEmpty() ? List.of() : ActionArchiveCodec.decode(matchId, data.get(0));
+    }
+
+    /**
+     * Live entries after a given position for each match (afterSeq maps match id to position), in log order.
+     * Only the live table is read: tails are wanted for running matches, whose logs aren't archived yet.
+     */
+    public Map<Long, List<ActionRecord>> tails(Map<Long, Long> afterSeq) {
+        Long[] ids = afterSeq.keySet().toArray(new Long[0]);
+        Long[] seqs = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) seqs[i] = afterSeq.get(ids[i]);
+
+        Map<Long, List<ActionRecord>> out = new HashMap<>();
+        jdbc.query(SELECT_TAILS, (PreparedStatementSetter) ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("int8", ids));
+            ps.setArray(2, ps.getConnection().createArrayOf("int8", seqs));
+        }, (RowCallbackHandler) rs -> {
+            long matchId = rs.getLong(10);
+            out.computeIfAbsent(matchId, k -> new ArrayList<>()).add(record(matchId, rs));
+        });
+        return out;
+    }
+
+    /** Live rows in log order; when maxId is given, it receives the highest row id read. */
+    List<ActionRecord> live(long matchId, long[] maxId) {
+        List<ActionRecord> out = new ArrayList<>();
+        jdbc.query(SELECT_EVENTS, rs -> {
+            if (maxId != null) maxId[0] = Math.max(maxId[0], rs.getLong(1));
+            out.add(record(matchId, rs));
+        }, matchId);
+        return out;
+    }
+
+    private static ActionRecord record(long matchId, ResultSet rs) throws SQLException {
+        int x = rs.getInt(5);
+        if (rs.wasNull()) x = -1;
+        int y = rs.getInt(6);
+        if (rs.wasNull()) y = -1;
+        return new ActionRecord(
+                matchId,
+                rs.getLong(2),
+                rs.getInt(4),
+                ActionType.valueOf(rs.getString(3)),
+                x,
+                y,
+                rs.getString(7),
+                rs.getString(8),
+                rs.getObject(9, OffsetDateTime.class)
+        );
+    }
+}
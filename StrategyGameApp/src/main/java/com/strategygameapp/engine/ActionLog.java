@@ -0,0 +1,174 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ActionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only action log written behind the request path. Records go into a bounded ring and a single
+ * writer thread inserts them in JDBC batches, in the order they were appended. Callers append from inside
+ * the match's actor, so each match's records keep the order its commands ran in. Failed inserts are retried
+ * with exponential backoff; while they keep failing the ring fills up and {@link #admit} starts turning commands
+ * away.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActionLog {
+
+    private static final long RETRY_BASE_MS = 100;
+
+    private static final String INSERT_ACTION =
+            "INSERT INTO action_events (match_id, seq, type, player_seat, x, y, message, payload, ts) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+
+    @Value("${game.actions.log.capacity:65536}")
+    private int capacity;
+
+    @Value("${game.actions.log.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${game.actions.log.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${game.actions.log.admit-timeout-ms:5000}")
+    private long admitTimeoutMs;
+
+    @Value("${game.actions.log.retry-max-ms:30000}")
+    private long retryMaxMs;
+
+    private MpscRingBuffer<Entry> ring;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Written by the writer thread only; read by the health indicator.
+    private volatile long failedWrites;
+    private volatile int consecutiveFailures;
+    private volatile long failingSince;
+
+    @PostConstruct
+    void start() {
+        ring = new MpscRingBuffer<>(capacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "action-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Waits up to admit-timeout-ms for room in the ring, then fails with {@link ActionLogStalledException}.
+     * The engine calls it before a command runs, so a stalled writer fails the request while the match is
+     * still untouched; once a command has changed the state, its entries can't be dropped and append waits.
+     */
+    public void admit() {
+        if (ring.hasRoom()) return;
+        long start = System.nanoTime();
+        long timeout = TimeUnit.MILLISECONDS.toNanos(admitTimeoutMs);
+        while (!ring.hasRoom()) {
+            if (System.nanoTime() - start >= timeout) throw new ActionLogStalledException(admitTimeoutMs);
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    /** Logs a command applied to m. Must be called from m's actor, which numbers its entries. */
+    public void append(MatchState m, int seat, ActionType type, int x, int y, String message, String payload) {
+        append(new Entry(m, new ActionRecord(m.getMatchId(), m.nextLogSeq(), seat, type, x, y, message, payload,
+                OffsetDateTime.now())));
+    }
+
+    // Replay and recovery need every numbered entry, so a full ring holds the actor back rather than losing one.
+    private void append(Entry entry) {
+        while (!ring.offer(entry)) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (running || !ring.isEmpty() || !batch.isEmpty()) {
+            if (batch.isEmpty()) ring.drainTo(batch, batchSize);
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(lingerNanos);
+                continue;
+            }
+            try {
+                write(batch);
+                // Entries are in append order, so each match ends up at its last committed entry.
+                for (Entry e : batch) e.match().logWritten(e.record().seq());
+                batch.clear();
+                if (consecutiveFailures > 0) {
+                    log.info("Action log writes recovered after {} failed attempts", consecutiveFailures);
+                    consecutiveFailures = 0;
+                    failingSince = 0;
+                }
+            } catch (RuntimeException e) {
+                // Keep the batch and retry; the ring filling up is what pushes back on producers.
+                failedWrites++;
+                if (consecutiveFailures++ == 0) failingSince = System.currentTimeMillis();
+                long delayMs = Math.min(retryMaxMs, RETRY_BASE_MS << Math.min(consecutiveFailures - 1, 20));
+                log.warn("Action log write failed {} times in a row, retrying in {} ms: {}",
+                        consecutiveFailures, delayMs, e.getMessage());
+                if (!running) return;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delayMs));
+            }
+        }
+    }
+
+    /** Batch inserts that have failed since startup. */
+    public long failedWrites() {
+        return failedWrites;
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /** Epoch millis of the first failure in the current run of failed inserts, or 0 while they succeed. */
+    public long failingSince() {
+        return failingSince;
+    }
+
+    public boolean isFull() {
+        return !ring.hasRoom();
+    }
+
+    private void write(List<Entry> batch) {
+        jdbc.batchUpdate(INSERT_ACTION, batch, batch.size(), (ps, e) -> {
+            ActionRecord r = e.record();
+            ps.setLong(1, r.matchId());
+            ps.setLong(2, r.seq());
+            ps.setString(3, r.type().name());
+            ps.setInt(4, r.seat());
+            ps.setObject(5, r.x() < 0 ? null : r.x(), Types.INTEGER);
+            ps.setObject(6, r.y() < 0 ? null : r.y(), Types.INTEGER);
+            ps.setString(7, r.message());
+            ps.setString(8, r.payload());
+            ps.setObject(9, r.ts());
+        });
+    }
+
+    private record Entry(MatchState match, ActionRecord record) {}
+}
@@ -0,0 +1,26 @@
+package com.strategygameapp.engine;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/** DOWN while the action log writer's inserts keep failing; commands are turned away once its ring is full. */
+@Component
+@RequiredArgsConstructor
+class ActionLogHealthIndicator implements HealthIndicator {
+
+    private final ActionLog actionLog;
+
+    @Override
+    public Health health() {
+        long since = actionLog.failingSince();
+        Health.Builder health = since == 0 ? Health.up() : Health.down()
+                .withDetail("consecutiveFailures", actionLog.consecutiveFailures())
+                .withDetail("failingForMs", System.currentTimeMillis() - since);
+        return health
+                .withDetail("failedWrites", actionLog.failedWrites())
+                .withDetail("full", actionLog.isFull())
+                .build();
+    }
+}
@@ -0,0 +1,13 @@
+package com.strategygameapp.engine;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/** The action log had no room for a command's entries within the admit timeout; the command did not run. */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "ACTION_LOG_STALLED")
+public class ActionLogStalledException extends RuntimeException {
+
+    public ActionLogStalledException(long waitedMs) {
+        super("Action log had no room for " + waitedMs + " ms");
+    }
+}
@@ -0,0 +1,22 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ActionType;
+
+import java.time.OffsetDateTime;
+
+/**
+ * One entry of a match's command log. seq numbers a match's entries from 1 in the order they were applied;
+ * x/y are -1 for commands without a cell, and payload carries any effect that can't be recomputed on replay
+ * (see {@link LogPayload}).
+ */
+public record ActionRecord(
+        long matchId,
+        long seq,
+        int seat,
+        ActionType type,
+        int x,
+        int y,
+        String message,
+        String payload,
+        OffsetDateTime ts
+) {}
@@ -0,0 +1,45 @@
+package com.strategygameapp.engine;
+
+/**
+ * Packs a board into one byte array laid out as planes: regions (1 byte per cell), owners (2 bytes per cell,
+ * big-endian, -1 for empty) and hits (1 byte per cell). Encode and decode work on caller-provided arrays.
+ */
+public final class BoardCodec {
+
+    private BoardCodec() {}
+
+    public static int size(int cells) {
+        return cells * 4;
+    }
+
+    public static void encode(byte[] regions, int[] owners, byte[] hits, byte[] out) {
+        int n = regions.length;
+        checkSize(n, out);
+        System.arraycopy(regions, 0, out, 0, n);
+        int o = n;
+        for (int i = 0; i < n; i++) {
+            int owner = owners[i];
+            out[o++] = (byte) (owner >> 8);
+            out[o++] = (byte) owner;
+        }
+        System.arraycopy(hits, 0, out, n * 3, n);
+    }
+
+    public static void decode(byte[] in, byte[] regions, int[] owners, byte[] hits) {
+        int n = regions.length;
+        checkSize(n, in);
+        System.arraycopy(in, 0, regions, 0, n);
+        int o = n;
+        for (int i = 0; i < n; i++) {
+            owners[i] = (short) ((in[o] << 8) | (in[o + 1] & 0xFF));
+            o += 2;
+        }
+        System.arraycopy(in, n * 3, hits, 0, n);
+    }
+
+    private static void checkSize(int cells, byte[] data) {
+        if (data.length != size(cells)) {
+            throw new IllegalArgumentException("Packed board has " + data.length + " bytes, expected " + size(cells));
+        }
+    }
+}
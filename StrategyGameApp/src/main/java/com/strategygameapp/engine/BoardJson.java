@@ -0,0 +1,60 @@
+package com.strategygameapp.engine;
+
+/**
+ * A board rendered once as the JSON body of GET /api/board/{matchId}. Each cell's owner and hits live in
+ * fixed-width slots, so a cell change rewrites a few bytes instead of re-rendering the board. It costs about
+ * 76 bytes per cell (the JSON plus the slot index) for as long as its match stays resident.
+ */
+final class BoardJson {
+
+    private static final String HITS_KEY = ",\"hits\":";
+    private static final int HITS_WIDTH = 4;
+
+    private byte[] json;
+    // The array has been handed out and must not change under its reader; the next cell change copies it.
+    private boolean shared;
+    private final int[] ownerAt;
+
+    BoardJson(MatchState s) {
+        int n = s.cellCount();
+        JsonBuffer out = new JsonBuffer(n * 72 + 64);
+        ownerAt = new int[n];
+
+        out.raw("{\"width\":").number(s.getWidth())
+                .raw(",\"height\":").number(s.getHeight())
+                .raw(",\"cells\":[");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) out.raw(",");
+            out.raw("{\"x\":").number(i % s.getWidth())
+                    .raw(",\"y\":").number(i / s.getWidth())
+                    .raw(",\"region\":\"").raw(s.region(i).name())
+                    .raw("\",\"ownerSeat\":");
+            ownerAt[i] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw(HITS_KEY);
+            out.slot(HITS_WIDTH);
+            out.raw("}");
+        }
+        out.raw("]}");
+
+        json = out.toArray();
+        for (int i = 0; i < n; i++) {
+            cell(i, s.owner(i), s.hits(i));
+        }
+    }
+
+    void cell(int idx, int owner, int hits) {
+        if (shared) {
+            json = json.clone();
+            shared = false;
+        }
+        int at = ownerAt[idx];
+        JsonBuffer.writeInt(json, at, JsonBuffer.INT_WIDTH, owner);
+        JsonBuffer.writeInt(json, at + JsonBuffer.INT_WIDTH + HITS_KEY.length(), HITS_WIDTH, hits);
+    }
+
+    /** The current body, which is never modified afterwards: reads between cell changes all get the same array. */
+    byte[] bytes() {
+        shared = true;
+        return json;
+    }
+}
@@ -0,0 +1,3 @@
+package com.strategygameapp.engine;
+
+public enum BoardStorage { ROWS, PACKED }
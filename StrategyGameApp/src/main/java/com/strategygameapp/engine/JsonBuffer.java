@@ -0,0 +1,74 @@
+package com.strategygameapp.engine;
+
+import java.util.Arrays;
+
+/**
+ * Minimal ASCII JSON writer for the pre-serialized views. Values that change later are written into
+ * fixed-width slots (right-aligned, space padded, which JSON allows) so they can be overwritten in place.
+ */
+final class JsonBuffer {
+
+    static final int INT_WIDTH = 11;
+    static final int BOOL_WIDTH = 5;
+
+    private byte[] buf;
+    private int len;
+
+    JsonBuffer(int capacity) {
+        this.buf = new byte[Math.max(16, capacity)];
+    }
+
+    JsonBuffer raw(String ascii) {
+        ensure(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buf[len++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    JsonBuffer number(long value) {
+        return raw(Long.toString(value));
+    }
+
+    JsonBuffer bool(boolean value) {
+        return raw(value ? "true" : "false");
+    }
+
+    int slot(int width) {
+        ensure(width);
+        int at = len;
+        Arrays.fill(buf, at, at + width, (byte) ' ');
+        len += width;
+        return at;
+    }
+
+    byte[] toArray() {
+        return Arrays.copyOf(buf, len);
+    }
+
+    static void writeInt(byte[] out, int at, int width, long value) {
+        boolean negative = value < 0;
+        long v = Math.abs(value);
+        int i = at + width - 1;
+        do {
+            out[i--] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v > 0 && i >= at);
+        if (negative && i >= at) out[i--] = '-';
+        while (i >= at) out[i--] = ' ';
+    }
+
+    static void writeBool(byte[] out, int at, boolean value) {
+        out[at] = (byte) (value ? 't' : 'f');
+        out[at + 1] = (byte) (value ? 'r' : 'a');
+        out[at + 2] = (byte) (value ? 'u' : 'l');
+        out[at + 3] = (byte) (value ? 'e' : 's');
+        out[at + 4] = (byte) (value ? ' ' : 'e');
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.strategygameapp.engine;
+
+import java.util.List;
+
+/**
+ * Seat resource changes as stored in a command log payload: space-separated groups of
+ * seat, lightning, wood, stone, glass, force.
+ */
+public final class LogPayload {
+
+    private static final int FIELDS = 6;
+
+    private LogPayload() {}
+
+    /** Resources of every seat, in the layout {@link #diff} compares. */
+    public static int[] capture(List<PlayerState> players) {
+        int[] out = new int[players.size() * FIELDS];
+        int k = 0;
+        for (PlayerState p : players) {
+            if (p == null) {
+                k += FIELDS;
+                continue;
+            }
+            out[k++] = p.getSeat();
+            out[k++] = p.getLightning();
+            out[k++] = p.getWood();
+            out[k++] = p.getStone();
+            out[k++] = p.getGlass();
+            out[k++] = p.getForce();
+        }
+        return out;
+    }
+
+    /** The seats whose resources differ between two captures, with the differences; null if none do. */
+    public static String diff(int[] before, int[] after) {
+        StringBuilder sb = null;
+        for (int i = 0; i < after.length; i += FIELDS) {
+            boolean changed = false;
+            for (int f = 1; f < FIELDS; f++) {
+                changed |= after[i + f] != before[i + f];
+            }
+            if (!changed) continue;
+            if (sb == null) sb = new StringBuilder();
+            else sb.append(' ');
+            sb.append(after[i]);
+            for (int f = 1; f < FIELDS; f++) {
+                sb.append(' ').append(after[i + f] - before[i + f]);
+            }
+        }
+        return sb == null ? null : sb.toString();
+    }
+
+    /** Every seat's resources as changes from zero. */
+    public static String holdings(List<PlayerState> players) {
+        int[] now = capture(players);
+        return diff(new int[now.length], now);
+    }
+
+    public static String of(int seat, int lightning, int wood, int stone, int glass, int force) {
+        return seat + " " + lightning + " " + wood + " " + stone + " " + glass + " " + force;
+    }
+
+    /** Adds the changes in a payload to the seats of a match. */
+    public static void apply(MatchState m, String payload) {
+        if (payload == null || payload.isBlank()) return;
+        String[] parts = payload.trim().split(" ");
+        for (int i = 0; i + FIELDS <= parts.length; i += FIELDS) {
+            PlayerState p = m.player(Integer.parseInt(parts[i]));
+            if (p == null) continue;
+            p.setLightning(p.getLightning() + Integer.parseInt(parts[i + 1]));
+            p.setWood(p.getWood() + Integer.parseInt(parts[i + 2]));
+            p.setStone(p.getStone() + Integer.parseInt(parts[i + 3]));
+            p.setGlass(p.getGlass() + Integer.parseInt(parts[i + 4]));
+            p.setForce(p.getForce() + Integer.parseInt(parts[i + 5]));
+            m.touch(p);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.strategygameapp.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Single-writer mailbox for one match. Tasks posted here run one at a time, in order,
+ * on the shared worker pool, so a MatchState is only ever touched by one thread at once.
+ */
+@Slf4j
+final class MatchActor implements Runnable {
+
+    private static final int MAX_TASKS_PER_RUN = 64;
+
+    private final MatchState state;
+    private final Executor workers;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Set on the actor, but also read by the engine from other threads before it posts to the mailbox.
+    private volatile boolean retired;
+
+    MatchActor(MatchState state, Executor workers) {
+        this.state = state;
+        this.workers = workers;
+    }
+
+    MatchState state() {
+        return state;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    void retire() {
+        retired = true;
+    }
+
+    void post(Runnable task) {
+        mailbox.add(task);
+        if (scheduled.compareAndSet(false, true)) {
+            workers.execute(this);
+        }
+    }
+
+    <T> CompletableFuture<T> call(Function<MatchState, T> fn) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        post(() -> {
+            try {
+                result.complete(fn.apply(state));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+                Runnable task = mailbox.poll();
+                if (task == null) break;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Unhandled error in match {} actor", state.getMatchId(), e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                workers.execute(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.MatchStatus;
+
+import java.time.OffsetDateTime;
+
+record MatchChanges(
+        long matchId,
+        int width,
+        int[] cells,
+        int[] owners,
+        byte[] hits,
+        byte[] packedBoard,
+        PlayerState[] players,
+        boolean matchChanged,
+        MatchStatus status,
+        Integer currentTurn,
+        Integer winnerSeat,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt,
+        TradeBook.TradeChange[] trades,
+        byte[] snapshot,
+        long logSeq,
+        // Log position of the snapshot before this one, to fall back to if this one isn't written.
+        long previousSnapshotSeq
+) {
+}
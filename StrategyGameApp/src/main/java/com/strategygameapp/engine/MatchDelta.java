@@ -0,0 +1,22 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.MatchStatus;
+
+/**
+ * Changes made to a match by one command: the cells and seats it touched (with their values after the
+ * command) and the match's turn/status at that point.
+ */
+public record MatchDelta(
+        long matchId,
+        long seq,
+        int width,
+        int[] cells,
+        byte[] regions,
+        int[] owners,
+        byte[] hits,
+        PlayerState[] players,
+        boolean matchChanged,
+        MatchStatus status,
+        Integer currentTurn,
+        Integer winnerSeat
+) {}
@@ -0,0 +1,267 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.model.enums.MatchStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.strategygameapp.scheduler.HashedTimingWheel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@Component
+@RequiredArgsConstructor
+public class MatchEngine {
+
+    private final MatchStateStore store;
+    private final ActionLog actionLog;
+    private final ConcurrentHashMap<Long, MatchActor> actors = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock loadLock = new ReentrantReadWriteLock();
+
+    @Value("${game.engine.workers:0}")
+    private int workerCount;
+
+    @Value("${game.stream.replay-size:256}")
+    private int replaySize;
+
+    @Value("${game.trades.expiry-resolution-ms:100}")
+    private long expiryResolutionMs;
+
+    private ExecutorService workers;
+    private HashedTimingWheel expiryWheel;
+
+    @PostConstruct
+    void start() {
+        int n = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "match-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        expiryWheel = new HashedTimingWheel("trade-expiry", expiryResolutionMs, TimeUnit.MILLISECONDS, 512);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        expiryWheel.close();
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public MatchState create(Match m, List<MatchPlayer> players, byte[] regions) {
+        MatchState state = store.insert(m, players, regions);
+        actors.put(m.getId(), actorFor(state));
+        return state;
+    }
+
+    /** Makes a state rebuilt outside the engine resident, unless the match was loaded in the meantime. */
+    public boolean adopt(MatchState state) {
+        loadLock.readLock().lock();
+        try {
+            return actors.putIfAbsent(state.getMatchId(), actorFor(state)) == null;
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    public <T> Optional<T> execute(Long matchId, Function<MatchState, T> command) {
+        return await(submit(matchId, command));
+    }
+
+    public <T> CompletableFuture<Optional<T>> submit(Long matchId, Function<MatchState, T> command) {
+        MatchActor actor = residentOrLoad(matchId);
+        if (actor == null) return CompletableFuture.completedFuture(Optional.empty());
+
+        CompletableFuture<Optional<T>> result = new CompletableFuture<>();
+        actor.post(() -> {
+            if (actor.isRetired()) {
+                submit(matchId, command).whenComplete((v, e) -> {
+                    if (e != null) result.completeExceptionally(e);
+                    else result.complete(v);
+                });
+                return;
+            }
+            try {
+                // Turned away before it runs when the log has no room, so the state never gets ahead of it.
+                actionLog.admit();
+                result.complete(Optional.of(command.apply(actor.state())));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } finally {
+                actor.state().publish();
+            }
+        });
+        return result;
+    }
+
+    /** Like {@link #execute}, but never loads: empty when the match isn't resident. */
+    public <T> Optional<T> executeResident(Long matchId, Function<MatchState, T> command) {
+        MatchActor actor = actors.get(matchId);
+        if (actor == null) return Optional.empty();
+        return await(actor.call(s -> {
+            if (actor.isRetired()) return Optional.<T>empty();
+            try {
+                actionLog.admit();
+                return Optional.of(command.apply(s));
+            } finally {
+                s.publish();
+            }
+        }));
+    }
+
+    public boolean subscribe(Long matchId, long lastSeq, MatchListener listener) {
+        MatchActor actor = residentOrLoad(matchId);
+        if (actor == null) return false;
+
+        actor.post(() -> {
+            if (actor.isRetired()) {
+                if (!subscribe(matchId, lastSeq, listener)) listener.onClose();
+                return;
+            }
+            actor.state().feed(replaySize).subscribe(actor.state(), lastSeq, listener);
+        });
+        return true;
+    }
+
+    public boolean isResident(Long matchId) {
+        return actors.containsKey(matchId);
+    }
+
+    public void unsubscribe(Long matchId, MatchListener listener) {
+        MatchActor actor = actors.get(matchId);
+        if (actor == null) return;
+        actor.post(() -> actor.state().feed(replaySize).unsubscribe(listener));
+    }
+
+    public <T> Optional<T> query(Long matchId, Function<MatchState, T> view) {
+        MatchActor actor = actors.get(matchId);
+        if (actor == null) return Optional.empty();
+        return await(actor.call(s -> actor.isRetired() ? Optional.<T>empty() : Optional.of(view.apply(s))));
+    }
+
+    /**
+     * Current board version of a resident match, read without going through its mailbox: the field is volatile,
+     * so a change made by a finished command is always seen.
+     */
+    public OptionalLong boardVersion(Long matchId) {
+        MatchActor actor = actors.get(matchId);
+        return actor == null ? OptionalLong.empty() : OptionalLong.of(actor.state().getBoardVersion());
+    }
+
+    /**
+     * Runs a set-based update directly against the database and hands each running resident match its
+     * rows, possibly none, in one step on its actor. The update is handed those matches, with the rules
+     * each plays, and must touch no others: only a resident state can log its delta, and an unlogged
+     * change would be lost on replay. Loads are held off meanwhile so that set stays fixed and a state
+     * can't be read before the update commits and then have the same delta applied on top of it.
+     */
+    public <T> List<T> applyBulk(Function<Map<Long, Rules>, List<T>> update, ToLongFunction<T> matchOf,
+                                 BiConsumer<MatchState, List<T>> apply) {
+        loadLock.writeLock().lock();
+        try {
+            Map<Long, Rules> running = new HashMap<>();
+            for (MatchActor actor : actors.values()) {
+                if (!actor.isRetired() && actor.state().getStatus() == MatchStatus.RUNNING) {
+                    running.put(actor.state().getMatchId(), actor.state().rules());
+                }
+            }
+            if (running.isEmpty()) return List.of();
+            List<T> rows = update.apply(running);
+            Map<Long, List<T>> byMatch = new HashMap<>();
+            for (Long id : running.keySet()) byMatch.put(id, new ArrayList<>());
+            for (T row : rows) byMatch.get(matchOf.applyAsLong(row)).add(row);
+            byMatch.forEach((id, own) -> {
+                MatchActor actor = actors.get(id);
+                if (actor == null) return;
+                actor.post(() -> {
+                    if (actor.isRetired()) return;
+                    apply.accept(actor.state(), own);
+                    actor.state().publish();
+                });
+            });
+            return rows;
+        } finally {
+            loadLock.writeLock().unlock();
+        }
+    }
+
+    Collection<MatchActor> resident() {
+        return actors.values();
+    }
+
+    void evictSettled() {
+        for (MatchActor actor : actors.values()) {
+            if (!actor.state().isTerminal()) continue;
+            actor.post(() -> {
+                MatchState state = actor.state();
+                if (!actor.isRetired() && state.isTerminal() && !state.isDirty()) {
+                    actor.retire();
+                    actors.remove(state.getMatchId(), actor);
+                    state.closeFeed();
+                }
+            });
+        }
+    }
+
+    private MatchActor residentOrLoad(Long matchId) {
+        MatchActor actor = actors.get(matchId);
+        if (actor != null) return actor;
+
+        loadLock.readLock().lock();
+        try {
+            actor = actors.get(matchId);
+            if (actor != null) return actor;
+
+            MatchState loaded = store.load(matchId).orElse(null);
+            if (loaded == null) return null;
+            MatchActor fresh = actorFor(loaded);
+            MatchActor existing = actors.putIfAbsent(matchId, fresh);
+            return existing != null ? existing : fresh;
+        } finally {
+            loadLock.readLock().unlock();
+        }
+    }
+
+    // Offers expire on a timer posted into the match's mailbox, so they close on time even when nobody reads the book.
+    private MatchActor actorFor(MatchState state) {
+        MatchActor actor = new MatchActor(state, workers);
+        state.trades().onNextExpiry(at -> expiryWheel.schedule(() -> actor.post(() -> {
+            if (actor.isRetired()) return;
+            actor.state().trades().expiryTimerFired(OffsetDateTime.now());
+            actor.state().publish();
+        }), Math.max(0, at - System.currentTimeMillis()), TimeUnit.MILLISECONDS));
+        return actor;
+    }
+
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+}
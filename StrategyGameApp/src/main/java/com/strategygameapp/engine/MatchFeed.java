@@ -0,0 +1,105 @@
+package com.strategygameapp.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Per-match change feed, confined to the match's actor. Changes are collected while a command runs and
+ * published as one numbered delta when it finishes; the most recent deltas are kept so a listener that
+ * reconnects can be caught up without a full snapshot.
+ */
+final class MatchFeed {
+
+    private final int capacity;
+    private final ArrayDeque<MatchDelta> recent;
+    private final List<MatchListener> listeners = new ArrayList<>();
+
+    private final BitSet cells = new BitSet();
+    private final BitSet seats = new BitSet();
+    private boolean matchChanged;
+
+    // Seeded from the clock so numbers keep rising across reloads and restarts: a listener resuming from an
+    // earlier incarnation always falls outside the replay window and gets a snapshot instead.
+    private long seq = System.currentTimeMillis() << 20;
+
+    MatchFeed(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.recent = new ArrayDeque<>(this.capacity);
+    }
+
+    void cell(int idx) {
+        cells.set(idx);
+    }
+
+    void seat(int seat) {
+        seats.set(seat);
+    }
+
+    void match() {
+        matchChanged = true;
+    }
+
+    void subscribe(MatchState state, long lastSeq, MatchListener listener) {
+        if (canResume(lastSeq)) {
+            for (MatchDelta d : recent) {
+                if (d.seq() > lastSeq && !listener.onDelta(d)) return;
+            }
+        } else {
+            listener.onSnapshot(state, seq);
+        }
+        listeners.add(listener);
+    }
+
+    void unsubscribe(MatchListener listener) {
+        listeners.remove(listener);
+    }
+
+    void publish(MatchState state) {
+        if (cells.isEmpty() && seats.isEmpty() && !matchChanged) return;
+
+        int n = cells.cardinality();
+        int[] idx = new int[n];
+        byte[] region = new byte[n];
+        int[] owner = new int[n];
+        byte[] hit = new byte[n];
+        int k = 0;
+        for (int i = cells.nextSetBit(0); i >= 0; i = cells.nextSetBit(i + 1)) {
+            idx[k] = i;
+            region[k] = (byte) state.region(i).ordinal();
+            owner[k] = state.owner(i);
+            hit[k] = (byte) state.hits(i);
+            k++;
+        }
+
+        PlayerState[] players = new PlayerState[seats.cardinality()];
+        k = 0;
+        for (int s = seats.nextSetBit(0); s >= 0; s = seats.nextSetBit(s + 1)) {
+            players[k++] = state.player(s).copy();
+        }
+
+        MatchDelta delta = new MatchDelta(
+                state.getMatchId(), ++seq, state.getWidth(), idx, region, owner, hit, players,
+                matchChanged, state.getStatus(), state.getCurrentTurn(), state.getWinnerSeat()
+        );
+        cells.clear();
+        seats.clear();
+        matchChanged = false;
+
+        if (recent.size() == capacity) recent.removeFirst();
+        recent.addLast(delta);
+        listeners.removeIf(l -> !l.onDelta(delta));
+    }
+
+    void close() {
+        for (MatchListener l : listeners) l.onClose();
+        listeners.clear();
+    }
+
+    private boolean canResume(long lastSeq) {
+        if (lastSeq < 0 || lastSeq > seq) return false;
+        if (lastSeq == seq) return true;
+        return !recent.isEmpty() && recent.peekFirst().seq() <= lastSeq + 1;
+    }
+}
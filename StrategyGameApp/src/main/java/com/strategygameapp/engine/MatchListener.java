@@ -0,0 +1,17 @@
+package com.strategygameapp.engine;
+
+/**
+ * Receives a match's changes as they happen. All callbacks run on the match's actor, so implementations
+ * must hand work off rather than block.
+ */
+public interface MatchListener {
+
+    /** The listener could not be resumed from its last sequence number; the state is current as of seq. */
+    void onSnapshot(MatchState state, long seq);
+
+    /** Returning false unsubscribes the listener. */
+    boolean onDelta(MatchDelta delta);
+
+    /** The match was unloaded; no further callbacks follow. */
+    void onClose();
+}
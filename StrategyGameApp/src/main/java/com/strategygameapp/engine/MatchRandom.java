@@ -0,0 +1,50 @@
+package com.strategygameapp.engine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomness for matches. Every match gets a seed at creation and draws from generators derived from it, so
+ * nothing is shared between matches and everything a match rolled can be rolled again from its seed.
+ * Setting game.random.seed makes the seeds themselves reproducible, for tests and local runs.
+ */
+@Component
+public class MatchRandom {
+
+    private static final long MAP_STREAM = 0x6D6170L;
+    private static final long TICK_STREAM = 0x7469636BL;
+
+    private final SplittableRandom seeds;
+
+    public MatchRandom(@Value("${game.random.seed:#{null}}") Long masterSeed) {
+        this.seeds = new SplittableRandom(masterSeed != null ? masterSeed : new SecureRandom().nextLong());
+    }
+
+    public synchronized long newSeed() {
+        return seeds.nextLong();
+    }
+
+    /** The generator a match's map is drawn from. */
+    public static RandomGenerator map(long seed) {
+        return new SplittableRandom(mix(seed ^ MAP_STREAM));
+    }
+
+    /**
+     * The generator for whatever a match rolls while applying a given log entry. Keying it by log position
+     * instead of carrying generator state means a snapshot or replay needs only the seed to roll the same.
+     */
+    public static RandomGenerator at(long seed, long logSeq) {
+        return new SplittableRandom(mix(mix(seed ^ TICK_STREAM) + logSeq));
+    }
+
+    // SplitMix64 finalizer: spreads nearby inputs (consecutive log positions) over unrelated seeds.
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
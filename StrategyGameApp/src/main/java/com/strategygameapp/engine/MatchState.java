@@ -0,0 +1,461 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.model.enums.RegionType;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+public class MatchState {
+    private static final RegionType[] REGIONS = RegionType.values();
+
+    @Getter
+    private final long matchId;
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    @Getter
+    private final int playerCount;
+    @Getter
+    private final OffsetDateTime createdAt;
+    @Getter
+    private final long seed;
+    @Getter
+    private final String mapGenerator;
+
+    // Volatile, like boardVersion: the engine reads it off the actor to pick matches for bulk ticks and eviction.
+    @Getter
+    private volatile MatchStatus status;
+    @Getter
+    private Integer currentTurn;
+    @Getter
+    private Integer winnerSeat;
+    @Getter
+    private OffsetDateTime startedAt;
+    @Getter
+    private OffsetDateTime finishedAt;
+
+    // Board is stored row-major (index = y * width + x); regions hold RegionType ordinals, owner -1 means empty.
+    private final byte[] regions;
+    private final int[] owners;
+    private final byte[] hits;
+    private final PlayerState[] players;
+    private final BoardStorage storage;
+    private final Rules rules;
+    private final TradeBook trades;
+
+    // Live house counts per seat and region (index = seat * REGIONS.length + region), kept in step with owners.
+    private final int[] houses;
+    private final int[] houseTotals;
+    private int aliveCount;
+
+    // Alive seats linked into a ring by seat number, so passing the turn is a pointer hop. Eliminated seats
+    // are unlinked but keep their forward link, which still leads back into the ring.
+    private final int[] nextSeat;
+    private final int[] prevSeat;
+
+    // Log position of the entry that last changed a cell, or of the last entry when loaded; the same board state
+    // therefore gets the same version after every reload. Volatile because HTTP threads read it off the actor
+    // (MatchEngine.boardVersion) to answer conditional GETs; a stale read there would be a wrong 304.
+    @Getter
+    private volatile long boardVersion;
+
+    // Sequence number of the last command log entry; see ActionLog.
+    private long logSeq;
+    // Last entry the log writer has committed; set from the writer thread, read by the flusher.
+    private volatile long writtenLogSeq;
+    // Log position and time of the last snapshot handed to the store.
+    private long snapshotSeq;
+    private long snapshotAt = System.currentTimeMillis();
+
+    private final BitSet dirtyCells;
+    private final BitSet dirtySeats;
+    private boolean matchDirty;
+    private volatile boolean flushPending;
+
+    private MatchFeed feed;
+    private BoardJson boardJson;
+    private PlayersJson playersJson;
+
+    MatchState(Match m, byte[] regions, int[] owners, byte[] hits, List<PlayerState> players, BoardStorage storage,
+               Rules rules) {
+        this(m, regions, owners, hits, players, storage, rules, List.of());
+    }
+
+    MatchState(Match m, byte[] regions, int[] owners, byte[] hits, List<PlayerState> players, BoardStorage storage,
+               Rules rules, List<TradeEntry> trades) {
+        this.matchId = m.getId();
+        this.width = m.getWidth();
+        this.height = m.getHeight();
+        this.playerCount = m.getPlayers();
+        this.createdAt = m.getCreatedAt();
+        // Matches from before seeding still need a stable seed of their own.
+        this.seed = m.getSeed() != null ? m.getSeed() : MatchRandom.mix(m.getId());
+        this.mapGenerator = m.getMapGenerator();
+        this.rules = rules;
+        this.status = m.getStatus();
+        this.currentTurn = m.getCurrentTurn();
+        this.winnerSeat = m.getWinnerSeat();
+        this.startedAt = m.getStartedAt();
+        this.finishedAt = m.getFinishedAt();
+        this.regions = regions;
+        this.owners = owners;
+        this.hits = hits;
+        this.storage = storage;
+        this.trades = new TradeBook(trades);
+        this.trades.onChange(() -> flushPending = true);
+        this.players = new PlayerState[m.getPlayers()];
+        for (PlayerState p : players) {
+            if (p.getSeat() >= 1 && p.getSeat() <= this.players.length) {
+                this.players[p.getSeat() - 1] = p;
+            }
+        }
+        this.houses = new int[(this.players.length + 1) * REGIONS.length];
+        this.houseTotals = new int[this.players.length + 1];
+        this.nextSeat = new int[this.players.length + 1];
+        this.prevSeat = new int[this.players.length + 1];
+        int first = 0;
+        int last = 0;
+        for (PlayerState p : this.players) {
+            if (p == null || !p.isAlive()) continue;
+            aliveCount++;
+            int seat = p.getSeat();
+            if (first == 0) first = seat;
+            else {
+                nextSeat[last] = seat;
+                prevSeat[seat] = last;
+            }
+            last = seat;
+        }
+        if (first != 0) {
+            nextSeat[last] = first;
+            prevSeat[first] = last;
+            int following = first;
+            for (int seat = this.players.length; seat >= 1; seat--) {
+                PlayerState p = this.players[seat - 1];
+                if (p != null && p.isAlive()) following = seat;
+                else nextSeat[seat] = following;
+            }
+        }
+        for (int i = 0; i < owners.length; i++) {
+            countHouse(owners[i], regions[i], 1);
+        }
+        this.dirtyCells = new BitSet(regions.length);
+        this.dirtySeats = new BitSet(this.players.length + 1);
+    }
+
+    public int cellCount() {
+        return regions.length;
+    }
+
+    public int index(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return -1;
+        return y * width + x;
+    }
+
+    public RegionType region(int idx) {
+        return REGIONS[regions[idx]];
+    }
+
+    public int owner(int idx) {
+        return owners[idx];
+    }
+
+    public int hits(int idx) {
+        return hits[idx];
+    }
+
+    public int houses(int seat, RegionType region) {
+        if (seat < 1 || seat > players.length) return 0;
+        return houses[seat * REGIONS.length + region.ordinal()];
+    }
+
+    public int houses(int seat) {
+        if (seat < 1 || seat > players.length) return 0;
+        return houseTotals[seat];
+    }
+
+    public void setCell(int idx, int owner, int hitCount) {
+        int previous = owners[idx];
+        if (previous != owner) {
+            countHouse(previous, regions[idx], -1);
+            countHouse(owner, regions[idx], 1);
+        }
+        owners[idx] = owner;
+        hits[idx] = (byte) hitCount;
+        // One volatile store per command, not per cell: a lightning strike can change many.
+        long version = logSeq + 1;
+        if (boardVersion != version) boardVersion = version;
+        if (boardJson != null) boardJson.cell(idx, owner, hitCount);
+        dirtyCells.set(idx);
+        flushPending = true;
+        if (feed != null) feed.cell(idx);
+    }
+
+    private void countHouse(int seat, int region, int delta) {
+        if (seat < 1 || seat > players.length) return;
+        houses[seat * REGIONS.length + region] += delta;
+        houseTotals[seat] += delta;
+    }
+
+    public PlayerState player(int seat) {
+        if (seat < 1 || seat > players.length) return null;
+        return players[seat - 1];
+    }
+
+    public List<PlayerState> players() {
+        return Arrays.asList(players);
+    }
+
+    public TradeBook trades() {
+        return trades;
+    }
+
+    public Rules rules() {
+        return rules;
+    }
+
+    public int aliveCount() {
+        return aliveCount;
+    }
+
+    public void eliminate(PlayerState p) {
+        if (!p.isAlive()) return;
+        p.setAlive(false);
+        aliveCount--;
+        int seat = p.getSeat();
+        nextSeat[prevSeat[seat]] = nextSeat[seat];
+        prevSeat[nextSeat[seat]] = prevSeat[seat];
+        touch(p);
+    }
+
+    /** The alive seat that plays after the given one, wrapping around; the seat itself if nobody is alive. */
+    public int nextSeat(int seat) {
+        if (aliveCount == 0 || seat < 1 || seat > players.length) return seat;
+        int s = nextSeat[seat];
+        while (!players[s - 1].isAlive()) {
+            s = nextSeat[s];
+        }
+        return s;
+    }
+
+    public void touch(PlayerState p) {
+        dirtySeats.set(p.getSeat());
+        flushPending = true;
+        if (feed != null) feed.seat(p.getSeat());
+        if (playersJson != null) playersJson.stale(p.getSeat());
+    }
+
+    /** Marks every seat for the next flush, so rows that ran ahead of the log are overwritten from it. */
+    public void touchPlayers() {
+        for (PlayerState p : players) {
+            if (p != null) touch(p);
+        }
+    }
+
+    public void setStatus(MatchStatus status) {
+        this.status = status;
+        markMatchDirty();
+    }
+
+    public void setCurrentTurn(Integer currentTurn) {
+        this.currentTurn = currentTurn;
+        markMatchDirty();
+    }
+
+    public void setWinnerSeat(Integer winnerSeat) {
+        this.winnerSeat = winnerSeat;
+        markMatchDirty();
+    }
+
+    public void setStartedAt(OffsetDateTime startedAt) {
+        this.startedAt = startedAt;
+        markMatchDirty();
+    }
+
+    public void setFinishedAt(OffsetDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+        markMatchDirty();
+    }
+
+    private void markMatchDirty() {
+        matchDirty = true;
+        flushPending = true;
+        if (feed != null) feed.match();
+    }
+
+    /** The board as response-ready JSON; the array is shared and never changes, so callers must not write to it. */
+    public byte[] boardJson() {
+        if (boardJson == null) boardJson = new BoardJson(this);
+        return boardJson.bytes();
+    }
+
+    /** The seat list as response-ready JSON; the same array is returned until a seat changes. */
+    public byte[] playersJson() {
+        if (playersJson == null) playersJson = new PlayersJson(players());
+        return playersJson.bytes(this);
+    }
+
+    /** Generator for the command about to be logged; see {@link MatchRandom#at}. Call it once per command. */
+    public RandomGenerator random() {
+        return MatchRandom.at(seed, logSeq + 1);
+    }
+
+    long nextLogSeq() {
+        return ++logSeq;
+    }
+
+    void initLogSeq(long lastSeq) {
+        logSeq = lastSeq;
+        writtenLogSeq = lastSeq;
+        snapshotSeq = lastSeq;
+        boardVersion = lastSeq;
+    }
+
+    /** Moves the log position forward while the log itself is being replayed onto this state. */
+    public void replayed(long seq) {
+        logSeq = seq;
+        writtenLogSeq = seq;
+    }
+
+    void logWritten(long seq) {
+        writtenLogSeq = seq;
+    }
+
+    long getWrittenLogSeq() {
+        return writtenLogSeq;
+    }
+
+    public long getLogSeq() {
+        return logSeq;
+    }
+
+    // The feed is only created once someone subscribes, so unwatched matches don't pay for it.
+    MatchFeed feed(int capacity) {
+        if (feed == null) feed = new MatchFeed(capacity);
+        return feed;
+    }
+
+    void publish() {
+        if (feed != null) feed.publish(this);
+    }
+
+    void closeFeed() {
+        if (feed != null) feed.close();
+    }
+
+    public boolean isTerminal() {
+        return status == MatchStatus.FINISHED || status == MatchStatus.CANCELLED;
+    }
+
+    public boolean isDirty() {
+        return matchDirty || !dirtyCells.isEmpty() || !dirtySeats.isEmpty() || trades.hasChanges();
+    }
+
+    boolean hasPendingChanges() {
+        return flushPending;
+    }
+
+    /**
+     * Collects the changes since the last drain. A full snapshot rides along once the log has moved
+     * snapshotEvery entries, or snapshotIntervalMs has passed with any movement, since the previous one.
+     */
+    MatchChanges drainChanges(long snapshotEvery, long snapshotIntervalMs) {
+        int n = dirtyCells.cardinality();
+        int[] idx = new int[n];
+        int[] owner = new int[n];
+        byte[] hit = new byte[n];
+        int k = 0;
+        for (int i = dirtyCells.nextSetBit(0); i >= 0; i = dirtyCells.nextSetBit(i + 1)) {
+            idx[k] = i;
+            owner[k] = owners[i];
+            hit[k] = hits[i];
+            k++;
+        }
+
+        PlayerState[] seats = new PlayerState[dirtySeats.cardinality()];
+        k = 0;
+        for (int s = dirtySeats.nextSetBit(0); s >= 0; s = dirtySeats.nextSetBit(s + 1)) {
+            seats[k++] = players[s - 1].copy();
+        }
+
+        byte[] packed = null;
+        if (storage == BoardStorage.PACKED && n > 0) {
+            packed = new byte[BoardCodec.size(regions.length)];
+            BoardCodec.encode(regions, owners, hits, packed);
+        }
+
+        byte[] snapshot = null;
+        long previousSnapshotSeq = snapshotSeq;
+        long now = System.currentTimeMillis();
+        if (logSeq > snapshotSeq && (logSeq - snapshotSeq >= snapshotEvery || now - snapshotAt >= snapshotIntervalMs)) {
+            snapshot = SnapshotCodec.encode(this, regions, owners, hits, players);
+            snapshotSeq = logSeq;
+            snapshotAt = now;
+        }
+
+        MatchChanges changes = new MatchChanges(
+                matchId, width, idx, owner, hit, packed, seats,
+                matchDirty, status, currentTurn, winnerSeat, startedAt, finishedAt,
+                trades.drainChanges(), snapshot, logSeq, previousSnapshotSeq
+        );
+        dirtyCells.clear();
+        dirtySeats.clear();
+        matchDirty = false;
+        flushPending = false;
+        return changes;
+    }
+
+    void restore(MatchChanges changes) {
+        for (int i : changes.cells()) dirtyCells.set(i);
+        for (PlayerState p : changes.players()) dirtySeats.set(p.getSeat());
+        if (changes.matchChanged()) matchDirty = true;
+        trades.restore(changes.trades());
+        // The snapshot wasn't written: take it again on the next drain even if no entries follow.
+        if (changes.snapshot() != null) {
+            snapshotSeq = changes.previousSnapshotSeq();
+            snapshotAt = 0;
+        }
+        flushPending = isDirty() || changes.snapshot() != null;
+    }
+
+    /**
+     * A copy of the board, seats and turn to try commands on. It has no trade offers, feed or pending changes,
+     * and nothing done to it is flushed or logged.
+     */
+    public MatchState detachedCopy() {
+        List<PlayerState> seats = new ArrayList<>(players.length);
+        for (PlayerState p : players) {
+            if (p != null) seats.add(p.copy());
+        }
+        MatchState copy = new MatchState(toMatch(), regions, owners.clone(), hits.clone(), seats, storage, rules);
+        copy.logSeq = logSeq;
+        return copy;
+    }
+
+    public Match toMatch() {
+        return Match.builder()
+                .id(matchId)
+                .status(status)
+                .players(playerCount)
+                .width(width)
+                .height(height)
+                .seed(seed)
+                .mapGenerator(mapGenerator)
+                .ruleset(rules.name())
+                .currentTurn(currentTurn)
+                .winnerSeat(winnerSeat)
+                .createdAt(createdAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
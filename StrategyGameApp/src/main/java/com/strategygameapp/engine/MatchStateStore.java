@@ -0,0 +1,413 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rulesets;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+import com.strategygameapp.model.enums.TradeStatus;
+import com.strategygameapp.repository.MatchPlayerRepository;
+import com.strategygameapp.repository.MatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchStateStore {
+
+    private static final RegionType[] REGIONS = RegionType.values();
+
+    private static final String SELECT_BLOB =
+            "SELECT data FROM board_blobs WHERE match_id = ?";
+    private static final String INSERT_BLOB =
+            "INSERT INTO board_blobs (match_id, width, height, data) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_BLOB =
+            "UPDATE board_blobs SET data = ? WHERE match_id = ?";
+    private static final String SELECT_CELLS =
+            "SELECT x, y, region, owner, hits FROM board_cells WHERE match_id = ?";
+    // Whole board in one statement: regions go over as a single array and are unnested server-side.
+    private static final String INSERT_CELLS = """
+            INSERT INTO board_cells (match_id, x, y, region, owner, hits)
+            SELECT ?, (t.i - 1) % ?, (t.i - 1) / ?, t.region, -1, 0
+            FROM unnest(?::varchar[]) WITH ORDINALITY AS t(region, i)
+            """;
+    private static final String INSERT_PLAYERS = """
+            INSERT INTO match_players (match_id, seat, bot, alive, lightning, wood, stone, glass, force)
+            SELECT ?, t.*
+            FROM unnest(?::int[], ?::boolean[], ?::boolean[], ?::int[], ?::int[], ?::int[], ?::int[], ?::int[])
+                 AS t(seat, bot, alive, lightning, wood, stone, glass, force)
+            RETURNING id, seat
+            """;
+    private static final String SELECT_LOG_SEQ = """
+            SELECT GREATEST(
+                (SELECT max(seq) FROM action_events WHERE match_id = ?),
+                (SELECT last_seq FROM action_archives WHERE match_id = ?),
+                0)
+            """;
+    private static final String SELECT_SNAPSHOTS = """
+            SELECT s.match_id, s.data, EXISTS (SELECT 1 FROM board_blobs b WHERE b.match_id = s.match_id)
+            FROM match_snapshots s
+            WHERE s.match_id = ANY (?::bigint[])
+            """;
+    private static final String UPSERT_SNAPSHOT = """
+            INSERT INTO match_snapshots (match_id, log_seq, taken_at, data) VALUES (?, ?, ?, ?)
+            ON CONFLICT (match_id) DO UPDATE SET
+                log_seq = EXCLUDED.log_seq,
+                taken_at = EXCLUDED.taken_at,
+                data = EXCLUDED.data
+            """;
+    private static final String SELECT_TRADES = """
+            SELECT match_id, id, from_seat, to_seat, give, get_resource, status,
+                   created_at, expires_at, accepted_by_seat, closed_at,
+                   give_wood, give_stone, give_glass, give_force,
+                   get_wood, get_stone, get_glass, get_force
+            FROM trade_offers
+            WHERE match_id = ANY (?::bigint[])
+            ORDER BY id
+            """;
+    // A match's commands run one at a time on its actor, and only the flusher writes their results, so these updates
+    // never race another read-modify-write and need no version check. Bulk gains add in place and are mirrored.
+    private static final String UPDATE_TRADE =
+            "UPDATE trade_offers SET status = ?, accepted_by_seat = ?, closed_at = ? WHERE id = ?";
+    private static final String UPDATE_CELL =
+            "UPDATE board_cells SET owner = ?, hits = ? WHERE match_id = ? AND x = ? AND y = ?";
+    private static final String UPDATE_PLAYER =
+            "UPDATE match_players SET alive = ?, lightning = ?, wood = ?, stone = ?, glass = ?, force = ? WHERE id = ?";
+    private static final String UPDATE_MATCH =
+            "UPDATE matches SET status = ?, current_turn = ?, winner_seat = ?, started_at = ?, finished_at = ? WHERE id = ?";
+
+    private final MatchRepository matchRepo;
+    private final MatchPlayerRepository playerRepo;
+    private final JdbcTemplate jdbc;
+    private final Rulesets rulesets;
+
+    @Value("${game.engine.flush-batch-size:500}")
+    private int batchSize;
+
+    @Value("${game.board.storage:ROWS}")
+    private BoardStorage storage;
+
+    public BoardStorage storage() {
+        return storage;
+    }
+
+    public Optional<MatchState> load(Long matchId) {
+        Match m = matchRepo.findById(matchId).orElse(null);
+        if (m == null) return Optional.empty();
+
+        BoardData board = readBoard(m);
+        List<PlayerState> players = playerRepo.findByMatchIdOrderBySeatAsc(matchId).stream()
+                .map(PlayerState::of)
+                .toList();
+
+        List<TradeEntry> trades = loadTrades(List.of(matchId)).getOrDefault(matchId, List.of());
+        MatchState state = new MatchState(m, board.regions(), board.owners(), board.hits(), players, board.format(),
+                rulesets.forMatch(m), trades);
+        state.initLogSeq(logPosition(matchId));
+        return Optional.of(state);
+    }
+
+    /** Sequence number of the match's last command log entry; the board version a load of it would start at. */
+    public long logPosition(Long matchId) {
+        Long lastSeq = jdbc.queryForObject(SELECT_LOG_SEQ, Long.class, matchId, matchId);
+        return lastSeq == null ? 0 : lastSeq;
+    }
+
+    /**
+     * Latest snapshots of the given matches, keyed by match id; matches without one, or whose snapshot or stored
+     * rules can't be read, are left out. Each state is positioned at the log entry its snapshot was taken after.
+     */
+    public Map<Long, MatchState> loadSnapshots(List<Match> matches) {
+        Map<Long, Match> byId = new HashMap<>();
+        for (Match m : matches) byId.put(m.getId(), m);
+
+        Map<Long, List<TradeEntry>> trades = loadTrades(byId.keySet());
+        Map<Long, MatchState> out = new HashMap<>();
+        jdbc.query(SELECT_SNAPSHOTS, (PreparedStatementSetter) ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("int8", byId.keySet().toArray())),
+                (RowCallbackHandler) rs -> {
+                    Match m = byId.get(rs.getLong(1));
+                    // A match keeps the format it was created with, whatever the current setting.
+                    BoardStorage format = rs.getBoolean(3) ? BoardStorage.PACKED : BoardStorage.ROWS;
+                    try {
+                        out.put(m.getId(), SnapshotCodec.decode(m, rs.getBytes(2), format,
+                                rulesets.forMatch(m), trades.getOrDefault(m.getId(), List.of())));
+                    } catch (RuntimeException e) {
+                        log.warn("Snapshot of match {} not loaded: {}", m.getId(), e.getMessage());
+                    }
+                });
+        return out;
+    }
+
+    /**
+     * The match as it was created: the stored map with no houses, every seat alive and empty-handed, and
+     * the match still pending. Replaying the command log over it rebuilds the match. The state is detached
+     * from the engine and never written back.
+     */
+    public Optional<MatchState> loadBlank(Long matchId) {
+        return loadBlank(matchId, false);
+    }
+
+    /**
+     * Like {@link #loadBlank}, but carrying the match's trade offers as stored, for a match that is rebuilt from
+     * its log and then made resident. Trade offers aren't part of the log.
+     */
+    public Optional<MatchState> loadForRebuild(Long matchId) {
+        return loadBlank(matchId, true);
+    }
+
+    private Optional<MatchState> loadBlank(Long matchId, boolean withTrades) {
+        Match stored = matchRepo.findById(matchId).orElse(null);
+        if (stored == null) return Optional.empty();
+
+        Match m = Match.builder()
+                .id(stored.getId())
+                .status(MatchStatus.PENDING)
+                .players(stored.getPlayers())
+                .width(stored.getWidth())
+                .height(stored.getHeight())
+                .seed(stored.getSeed())
+                .mapGenerator(stored.getMapGenerator())
+                .ruleset(stored.getRuleset())
+                .rulesData(stored.getRulesData())
+                .createdAt(stored.getCreatedAt())
+                .build();
+        BoardData board = readBoard(m);
+        Arrays.fill(board.owners(), -1);
+        Arrays.fill(board.hits(), (byte) 0);
+        List<PlayerState> players = playerRepo.findByMatchIdOrderBySeatAsc(matchId).stream()
+                .map(p -> {
+                    PlayerState s = new PlayerState(p.getId(), p.getSeat(), p.isBot());
+                    s.setAlive(true);
+                    return s;
+                })
+                .toList();
+
+        List<TradeEntry> trades = withTrades
+                ? loadTrades(List.of(matchId)).getOrDefault(matchId, List.of())
+                : List.of();
+        return Optional.of(new MatchState(m, board.regions(), board.owners(), board.hits(), players, board.format(),
+                rulesets.forMatch(m), trades));
+    }
+
+    private Map<Long, List<TradeEntry>> loadTrades(Collection<Long> matchIds) {
+        Map<Long, List<TradeEntry>> out = new HashMap<>();
+        jdbc.query(SELECT_TRADES, (PreparedStatementSetter) ps ->
+                ps.setArray(1, ps.getConnection().createArrayOf("int8", matchIds.toArray())),
+                (RowCallbackHandler) rs -> {
+                    int accepted = rs.getInt(10);
+                    Integer acceptedBy = rs.wasNull() ? null : accepted;
+                    out.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(new TradeEntry(
+                            rs.getLong(2),
+                            rs.getInt(3),
+                            rs.getInt(4),
+                            ResourceVector.of(rs.getInt(12), rs.getInt(13), rs.getInt(14), rs.getInt(15)),
+                            ResourceVector.of(rs.getInt(16), rs.getInt(17), rs.getInt(18), rs.getInt(19)),
+                            ResourceType.valueOf(rs.getString(5)),
+                            ResourceType.valueOf(rs.getString(6)),
+                            TradeStatus.valueOf(rs.getString(7)),
+                            rs.getObject(8, OffsetDateTime.class),
+                            rs.getObject(9, OffsetDateTime.class),
+                            acceptedBy,
+                            rs.getObject(11, OffsetDateTime.class)
+                    ));
+                });
+        return out;
+    }
+
+    private BoardData readBoard(Match m) {
+        long matchId = m.getId();
+        int w = m.getWidth();
+        int total = w * m.getHeight();
+        byte[] regions = new byte[total];
+        int[] owners = new int[total];
+        byte[] hits = new byte[total];
+        Arrays.fill(owners, -1);
+
+        // A match keeps the format it was created with, whatever the current setting.
+        List<byte[]> blob = jdbc.query(SELECT_BLOB, (rs, i) -> rs.getBytes(1), matchId);
+        BoardStorage format = blob.isEmpty() ? BoardStorage.ROWS : BoardStorage.PACKED;
+        if (format == BoardStorage.PACKED) {
+            BoardCodec.decode(blob.get(0), regions, owners, hits);
+        } else {
+            jdbc.query(SELECT_CELLS, rs -> {
+                int idx = rs.getInt(2) * w + rs.getInt(1);
+                regions[idx] = (byte) RegionType.valueOf(rs.getString(3)).ordinal();
+                owners[idx] = rs.getInt(4);
+                hits[idx] = (byte) rs.getInt(5);
+            }, matchId);
+        }
+
+        return new BoardData(regions, owners, hits, format);
+    }
+
+    @Transactional
+    public MatchState insert(Match m, List<MatchPlayer> players, byte[] regions) {
+        matchRepo.save(m);
+
+        int n = players.size();
+        Object[] seats = new Object[n], bots = new Object[n], alive = new Object[n], lightning = new Object[n];
+        Object[] wood = new Object[n], stone = new Object[n], glass = new Object[n], force = new Object[n];
+        for (int i = 0; i < n; i++) {
+            MatchPlayer p = players.get(i);
+            seats[i] = p.getSeat();
+            bots[i] = p.isBot();
+            alive[i] = p.isAlive();
+            lightning[i] = p.getLightning();
+            wood[i] = p.getWood();
+            stone[i] = p.getStone();
+            glass[i] = p.getGlass();
+            force[i] = p.getForce();
+        }
+
+        Map<Integer, Long> ids = new HashMap<>();
+        jdbc.query(INSERT_PLAYERS, (PreparedStatementSetter) ps -> {
+            Connection c = ps.getConnection();
+            ps.setLong(1, m.getId());
+            ps.setArray(2, c.createArrayOf("int4", seats));
+            ps.setArray(3, c.createArrayOf("bool", bots));
+            ps.setArray(4, c.createArrayOf("bool", alive));
+            ps.setArray(5, c.createArrayOf("int4", lightning));
+            ps.setArray(6, c.createArrayOf("int4", wood));
+            ps.setArray(7, c.createArrayOf("int4", stone));
+            ps.setArray(8, c.createArrayOf("int4", glass));
+            ps.setArray(9, c.createArrayOf("int4", force));
+        }, (RowCallbackHandler) rs -> ids.put(rs.getInt(2), rs.getLong(1)));
+        for (MatchPlayer p : players) {
+            p.setId(ids.get(p.getSeat()));
+            p.setMatch(m);
+        }
+
+        int[] owners = new int[regions.length];
+        byte[] hits = new byte[regions.length];
+        Arrays.fill(owners, -1);
+
+        if (storage == BoardStorage.PACKED) {
+            byte[] packed = new byte[BoardCodec.size(regions.length)];
+            BoardCodec.encode(regions, owners, hits, packed);
+            jdbc.update(INSERT_BLOB, m.getId(), m.getWidth(), m.getHeight(), packed);
+        } else {
+            String[] names = new String[regions.length];
+            for (int i = 0; i < regions.length; i++) {
+                names[i] = REGIONS[regions[i]].name();
+            }
+            jdbc.update(INSERT_CELLS, ps -> {
+                ps.setLong(1, m.getId());
+                ps.setInt(2, m.getWidth());
+                ps.setInt(3, m.getWidth());
+                ps.setArray(4, ps.getConnection().createArrayOf("varchar", names));
+            });
+        }
+
+        return new MatchState(m, regions, owners, hits,
+                players.stream().map(PlayerState::of).toList(), storage, rulesets.forMatch(m));
+    }
+
+    @Transactional
+    public void write(List<MatchChanges> batch) {
+        List<CellWrite> cells = new ArrayList<>();
+        List<MatchChanges> boards = new ArrayList<>();
+        List<PlayerState> players = new ArrayList<>();
+        List<MatchChanges> matches = new ArrayList<>();
+        List<MatchChanges> snapshots = new ArrayList<>();
+        List<TradeBook.TradeChange> trades = new ArrayList<>();
+
+        for (MatchChanges c : batch) {
+            trades.addAll(Arrays.asList(c.trades()));
+            if (c.snapshot() != null) snapshots.add(c);
+            if (c.packedBoard() != null) {
+                boards.add(c);
+            } else {
+                for (int i = 0; i < c.cells().length; i++) {
+                    int idx = c.cells()[i];
+                    cells.add(new CellWrite(c.matchId(), idx % c.width(), idx / c.width(), c.owners()[i], c.hits()[i]));
+                }
+            }
+            players.addAll(Arrays.asList(c.players()));
+            if (c.matchChanged()) matches.add(c);
+        }
+
+        if (!cells.isEmpty()) {
+            jdbc.batchUpdate(UPDATE_CELL, cells, batchSize, (ps, c) -> {
+                ps.setInt(1, c.owner());
+                ps.setInt(2, c.hits());
+                ps.setLong(3, c.matchId());
+                ps.setInt(4, c.x());
+                ps.setInt(5, c.y());
+            });
+        }
+
+        if (!boards.isEmpty()) {
+            jdbc.batchUpdate(UPDATE_BLOB, boards, batchSize, (ps, c) -> {
+                ps.setBytes(1, c.packedBoard());
+                ps.setLong(2, c.matchId());
+            });
+        }
+
+        if (!players.isEmpty()) {
+            jdbc.batchUpdate(UPDATE_PLAYER, players, batchSize, (ps, p) -> {
+                ps.setBoolean(1, p.isAlive());
+                ps.setInt(2, p.getLightning());
+                ps.setInt(3, p.getWood());
+                ps.setInt(4, p.getStone());
+                ps.setInt(5, p.getGlass());
+                ps.setInt(6, p.getForce());
+                ps.setLong(7, p.getId());
+            });
+        }
+
+        if (!matches.isEmpty()) {
+            jdbc.batchUpdate(UPDATE_MATCH, matches, batchSize, (ps, m) -> {
+                ps.setString(1, m.status().name());
+                ps.setObject(2, m.currentTurn(), Types.INTEGER);
+                ps.setObject(3, m.winnerSeat(), Types.INTEGER);
+                ps.setObject(4, m.startedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+                ps.setObject(5, m.finishedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+                ps.setLong(6, m.matchId());
+            });
+        }
+
+        if (!trades.isEmpty()) {
+            jdbc.batchUpdate(UPDATE_TRADE, trades, batchSize, (ps, t) -> {
+                ps.setString(1, t.status().name());
+                ps.setObject(2, t.acceptedBySeat(), Types.INTEGER);
+                ps.setObject(3, t.closedAt(), Types.TIMESTAMP_WITH_TIMEZONE);
+                ps.setLong(4, t.id());
+            });
+        }
+
+        // Same transaction as the rows; the flusher only gets here once the log holds every entry up to logSeq.
+        if (!snapshots.isEmpty()) {
+            OffsetDateTime now = OffsetDateTime.now();
+            jdbc.batchUpdate(UPSERT_SNAPSHOT, snapshots, batchSize, (ps, c) -> {
+                ps.setLong(1, c.matchId());
+                ps.setLong(2, c.logSeq());
+                ps.setObject(3, now);
+                ps.setBytes(4, c.snapshot());
+            });
+        }
+    }
+
+    private record BoardData(byte[] regions, int[] owners, byte[] hits, BoardStorage format) {}
+
+    private record CellWrite(long matchId, int x, int y, int owner, int hits) {}
+}
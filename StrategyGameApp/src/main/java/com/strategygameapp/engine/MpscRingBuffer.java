@@ -0,0 +1,76 @@
+package com.strategygameapp.engine;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a sequence number
+ * that tells producers when it is free and the consumer when it is filled, so neither side takes a lock.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int mask;
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.items = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    boolean offer(E e) {
+        long pos = tail.get();
+        for (;;) {
+            int slot = (int) (pos & mask);
+            long diff = sequences.get(slot) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items[slot] = e;
+                    sequences.set(slot, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /** Whether an offer made now would find a free slot; safe to call from any thread. */
+    boolean hasRoom() {
+        long pos = tail.get();
+        return sequences.get((int) (pos & mask)) >= pos;
+    }
+
+    /** Consumer side only. Moves up to max elements into out, in the order they were offered. */
+    @SuppressWarnings("unchecked")
+    int drainTo(List<E> out, int max) {
+        int n = 0;
+        while (n < max) {
+            int slot = (int) (head & mask);
+            if (sequences.get(slot) != head + 1) break;
+            out.add((E) items[slot]);
+            items[slot] = null;
+            sequences.set(slot, head + items.length);
+            head++;
+            n++;
+        }
+        return n;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+}
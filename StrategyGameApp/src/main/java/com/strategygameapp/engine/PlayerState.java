@@ -0,0 +1,110 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.model.enums.ResourceType;
+import lombok.Getter;
+import lombok.Setter;
+
+public class PlayerState {
+    private static final ResourceType[] RESOURCES = ResourceType.values();
+    private static final int WOOD = ResourceType.WOOD.ordinal();
+    private static final int STONE = ResourceType.STONE.ordinal();
+    private static final int GLASS = ResourceType.GLASS.ordinal();
+    private static final int FORCE = ResourceType.FORCE.ordinal();
+
+    @Getter
+    private final long id;
+    @Getter
+    private final int seat;
+    @Getter
+    private final boolean bot;
+    @Getter
+    @Setter
+    private boolean alive;
+    @Getter
+    @Setter
+    private int lightning;
+    // Held amount of each ResourceType, indexed by ordinal.
+    private final int[] resources = new int[ResourceVector.LANES];
+
+    PlayerState(long id, int seat, boolean bot) {
+        this.id = id;
+        this.seat = seat;
+        this.bot = bot;
+    }
+
+    static PlayerState of(MatchPlayer p) {
+        PlayerState s = new PlayerState(p.getId(), p.getSeat(), p.isBot());
+        s.alive = p.isAlive();
+        s.lightning = p.getLightning();
+        s.resources[WOOD] = p.getWood();
+        s.resources[STONE] = p.getStone();
+        s.resources[GLASS] = p.getGlass();
+        s.resources[FORCE] = p.getForce();
+        return s;
+    }
+
+    PlayerState copy() {
+        PlayerState s = new PlayerState(id, seat, bot);
+        s.alive = alive;
+        s.lightning = lightning;
+        System.arraycopy(resources, 0, s.resources, 0, resources.length);
+        return s;
+    }
+
+    public int amount(ResourceType r) {
+        return resources[r.ordinal()];
+    }
+
+    public void add(ResourceType r, int n) {
+        resources[r.ordinal()] += n;
+    }
+
+    public boolean has(ResourceVector v) {
+        return lacking(v) == null;
+    }
+
+    /** First resource, in ordinal order, that this player holds less of than v asks for; null if v is affordable. */
+    public ResourceType lacking(ResourceVector v) {
+        for (int i = 0; i < resources.length; i++) {
+            if (resources[i] < v.lane(i)) return RESOURCES[i];
+        }
+        return null;
+    }
+
+    public void pay(ResourceVector v) {
+        for (int i = 0; i < resources.length; i++) resources[i] -= v.lane(i);
+    }
+
+    public void add(ResourceVector v) {
+        for (int i = 0; i < resources.length; i++) resources[i] += v.lane(i);
+    }
+
+    public void add(ResourceVector v, int times) {
+        for (int i = 0; i < resources.length; i++) resources[i] += v.lane(i) * times;
+    }
+
+    public int getWood()  { return resources[WOOD]; }
+    public int getStone() { return resources[STONE]; }
+    public int getGlass() { return resources[GLASS]; }
+    public int getForce() { return resources[FORCE]; }
+
+    public void setWood(int n)  { resources[WOOD] = n; }
+    public void setStone(int n) { resources[STONE] = n; }
+    public void setGlass(int n) { resources[GLASS] = n; }
+    public void setForce(int n) { resources[FORCE] = n; }
+
+    public MatchPlayer toEntity() {
+        return MatchPlayer.builder()
+                .id(id)
+                .seat(seat)
+                .bot(bot)
+                .alive(alive)
+                .lightning(lightning)
+                .wood(resources[WOOD])
+                .stone(resources[STONE])
+                .glass(resources[GLASS])
+                .force(resources[FORCE])
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.MatchPlayer;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The seat list rendered as the JSON body of GET /api/players/{matchId}. Mutable fields sit in fixed-width
+ * slots; touched seats are re-rendered on the next read and the published copy is reused until then.
+ */
+public final class PlayersJson {
+
+    // alive, lightning, wood, stone, glass, force
+    private static final int SLOTS = 6;
+
+    private final byte[] json;
+    private final int[] slotAt;
+    private final BitSet stale = new BitSet();
+    private byte[] published;
+
+    PlayersJson(List<PlayerState> players) {
+        int n = players.size();
+        JsonBuffer out = new JsonBuffer(n * 200 + 2);
+        slotAt = new int[(n + 1) * SLOTS];
+
+        out.raw("[");
+        boolean first = true;
+        for (PlayerState p : players) {
+            if (p == null) continue;
+            if (!first) out.raw(",");
+            first = false;
+            int base = p.getSeat() * SLOTS;
+            out.raw("{\"id\":").number(p.getId())
+                    .raw(",\"seat\":").number(p.getSeat())
+                    .raw(",\"bot\":").bool(p.isBot())
+                    .raw(",\"alive\":");
+            slotAt[base] = out.slot(JsonBuffer.BOOL_WIDTH);
+            out.raw(",\"lightning\":");
+            slotAt[base + 1] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw(",\"wood\":");
+            slotAt[base + 2] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw(",\"stone\":");
+            slotAt[base + 3] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw(",\"glass\":");
+            slotAt[base + 4] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw(",\"force\":");
+            slotAt[base + 5] = out.slot(JsonBuffer.INT_WIDTH);
+            out.raw("}");
+        }
+        out.raw("]");
+
+        json = out.toArray();
+        for (PlayerState p : players) {
+            if (p != null) render(p);
+        }
+    }
+
+    public static byte[] of(List<MatchPlayer> players) {
+        return new PlayersJson(players.stream().map(PlayerState::of).toList()).bytes(null);
+    }
+
+    void stale(int seat) {
+        stale.set(seat);
+    }
+
+    byte[] bytes(MatchState s) {
+        if (s != null) {
+            for (int seat = stale.nextSetBit(0); seat >= 0; seat = stale.nextSetBit(seat + 1)) {
+                render(s.player(seat));
+            }
+        }
+        if (published == null || !stale.isEmpty()) {
+            published = json.clone();
+            stale.clear();
+        }
+        return published;
+    }
+
+    private void render(PlayerState p) {
+        int base = p.getSeat() * SLOTS;
+        JsonBuffer.writeBool(json, slotAt[base], p.isAlive());
+        JsonBuffer.writeInt(json, slotAt[base + 1], JsonBuffer.INT_WIDTH, p.getLightning());
+        JsonBuffer.writeInt(json, slotAt[base + 2], JsonBuffer.INT_WIDTH, p.getWood());
+        JsonBuffer.writeInt(json, slotAt[base + 3], JsonBuffer.INT_WIDTH, p.getStone());
+        JsonBuffer.writeInt(json, slotAt[base + 4], JsonBuffer.INT_WIDTH, p.getGlass());
+        JsonBuffer.writeInt(json, slotAt[base + 5], JsonBuffer.INT_WIDTH, p.getForce());
+    }
+}
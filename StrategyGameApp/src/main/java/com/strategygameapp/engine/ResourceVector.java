@@ -0,0 +1,115 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ResourceType;
+
+import java.util.Arrays;
+
+/**
+ * Immutable amounts of every {@link ResourceType}, one int lane per {@link ResourceType#ordinal()}. Costs, yields
+ * and trade bundles are built once and then applied to a {@link PlayerState}'s lanes in place, so the build, trade
+ * and gain paths don't allocate.
+ */
+public final class ResourceVector {
+
+    public static final int LANES = ResourceType.values().length;
+    public static final ResourceVector ZERO = new ResourceVector(new int[LANES]);
+
+    private static final ResourceType[] RESOURCES = ResourceType.values();
+    private static final ResourceVector[] UNITS = new ResourceVector[LANES];
+
+    static {
+        for (ResourceType r : RESOURCES) UNITS[r.ordinal()] = of(r, 1);
+    }
+
+    private final int[] lanes;
+
+    private ResourceVector(int[] lanes) {
+        this.lanes = lanes;
+    }
+
+    public static ResourceVector of(int wood, int stone, int glass, int force) {
+        int[] lanes = new int[LANES];
+        lanes[ResourceType.WOOD.ordinal()] = wood;
+        lanes[ResourceType.STONE.ordinal()] = stone;
+        lanes[ResourceType.GLASS.ordinal()] = glass;
+        lanes[ResourceType.FORCE.ordinal()] = force;
+        return new ResourceVector(lanes);
+    }
+
+    public static ResourceVector of(ResourceType r, int n) {
+        int[] lanes = new int[LANES];
+        lanes[r.ordinal()] = n;
+        return new ResourceVector(lanes);
+    }
+
+    /** Amounts indexed by ordinal; the array is copied. */
+    public static ResourceVector of(int[] byOrdinal) {
+        if (byOrdinal.length != LANES) throw new IllegalArgumentException("expected " + LANES + " lanes");
+        return new ResourceVector(byOrdinal.clone());
+    }
+
+    public static ResourceVector unit(ResourceType r) {
+        return UNITS[r.ordinal()];
+    }
+
+    public int get(ResourceType r) {
+        return lanes[r.ordinal()];
+    }
+
+    int lane(int i) {
+        return lanes[i];
+    }
+
+    public boolean isZero() {
+        for (int a : lanes) if (a != 0) return false;
+        return true;
+    }
+
+    /** Number of resources with a non-zero amount. */
+    public int kinds() {
+        int n = 0;
+        for (int a : lanes) if (a != 0) n++;
+        return n;
+    }
+
+    /** First resource, in ordinal order, with a non-zero amount; null for {@link #ZERO}. */
+    public ResourceType first() {
+        for (int i = 0; i < LANES; i++) {
+            if (lanes[i] != 0) return RESOURCES[i];
+        }
+        return null;
+    }
+
+    public boolean overlaps(ResourceVector o) {
+        for (int i = 0; i < LANES; i++) {
+            if (lanes[i] != 0 && o.lanes[i] != 0) return true;
+        }
+        return false;
+    }
+
+    public boolean anyNegative() {
+        for (int a : lanes) if (a < 0) return true;
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ResourceVector v && Arrays.equals(lanes, v.lanes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(lanes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < LANES; i++) {
+            if (lanes[i] == 0) continue;
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(RESOURCES[i]).append('=').append(lanes[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
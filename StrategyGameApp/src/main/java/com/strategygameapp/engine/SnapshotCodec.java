@@ -0,0 +1,138 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes a whole match state into one byte array: a header with the match fields and the command log
+ * position, one fixed-size record per seat, then the board as laid out by {@link BoardCodec}.
+ */
+final class SnapshotCodec {
+
+    private static final int FORMAT = 1;
+    private static final MatchStatus[] STATUSES = MatchStatus.values();
+
+    private static final int HEADER = 4 + 8 + 4 + 4 + 1 + 4 + 4 + 12 + 12 + 4;
+    private static final int SEAT = 8 + 4 + 1 + 5 * 4;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private SnapshotCodec() {}
+
+    static byte[] encode(MatchState m, byte[] regions, int[] owners, byte[] hits, PlayerState[] players) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER + players.length * SEAT + BoardCodec.size(regions.length));
+        out.putInt(FORMAT);
+        out.putLong(m.getLogSeq());
+        out.putInt(m.getWidth());
+        out.putInt(m.getHeight());
+        out.put((byte) m.getStatus().ordinal());
+        out.putInt(m.getCurrentTurn() == null ? -1 : m.getCurrentTurn());
+        out.putInt(m.getWinnerSeat() == null ? -1 : m.getWinnerSeat());
+        putTime(out, m.getStartedAt());
+        putTime(out, m.getFinishedAt());
+        out.putInt(players.length);
+        for (PlayerState p : players) {
+            out.putLong(p == null ? 0 : p.getId());
+            out.putInt(p == null ? 0 : p.getSeat());
+            out.put((byte) (p == null ? 0 : (p.isBot() ? 1 : 0) | (p.isAlive() ? 2 : 0)));
+            out.putInt(p == null ? 0 : p.getLightning());
+            out.putInt(p == null ? 0 : p.getWood());
+            out.putInt(p == null ? 0 : p.getStone());
+            out.putInt(p == null ? 0 : p.getGlass());
+            out.putInt(p == null ? 0 : p.getForce());
+        }
+        byte[] board = new byte[BoardCodec.size(regions.length)];
+        BoardCodec.encode(regions, owners, hits, board);
+        out.put(board);
+        return out.array();
+    }
+
+    /**
+     * Rebuilds the state; match supplies the fields a snapshot doesn't carry (id, seat count, creation time),
+     * and trades the match's offers, which are kept in their own table.
+     */
+    static MatchState decode(Match match, byte[] data, BoardStorage storage, Rules rules, List<TradeEntry> trades) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int format = in.getInt();
+        if (format != FORMAT) throw new IllegalStateException("Unknown snapshot format " + format);
+        long logSeq = in.getLong();
+        int width = in.getInt();
+        int height = in.getInt();
+        if (width != match.getWidth() || height != match.getHeight()) {
+            throw new IllegalStateException("Snapshot of match " + match.getId() + " is " + width + "x" + height);
+        }
+
+        Match m = Match.builder()
+                .id(match.getId())
+                .players(match.getPlayers())
+                .width(width)
+                .height(height)
+                .seed(match.getSeed())
+                .mapGenerator(match.getMapGenerator())
+                .ruleset(match.getRuleset())
+                .rulesData(match.getRulesData())
+                .createdAt(match.getCreatedAt())
+                .status(STATUSES[in.get()])
+                .currentTurn(optionalInt(in.getInt()))
+                .winnerSeat(optionalInt(in.getInt()))
+                .startedAt(getTime(in))
+                .finishedAt(getTime(in))
+                .build();
+
+        int seats = in.getInt();
+        List<PlayerState> players = new ArrayList<>(seats);
+        for (int i = 0; i < seats; i++) {
+            long id = in.getLong();
+            int seat = in.getInt();
+            byte flags = in.get();
+            PlayerState p = new PlayerState(id, seat, (flags & 1) != 0);
+            p.setAlive((flags & 2) != 0);
+            p.setLightning(in.getInt());
+            p.setWood(in.getInt());
+            p.setStone(in.getInt());
+            p.setGlass(in.getInt());
+            p.setForce(in.getInt());
+            if (seat > 0) players.add(p);
+        }
+
+        int cells = width * height;
+        byte[] board = new byte[BoardCodec.size(cells)];
+        in.get(board);
+        byte[] regions = new byte[cells];
+        int[] owners = new int[cells];
+        byte[] hits = new byte[cells];
+        BoardCodec.decode(board, regions, owners, hits);
+
+        MatchState state = new MatchState(m, regions, owners, hits, players, storage, rules, trades);
+        state.initLogSeq(logSeq);
+        return state;
+    }
+
+    private static void putTime(ByteBuffer out, OffsetDateTime t) {
+        if (t == null) {
+            out.putLong(NO_TIME);
+            out.putInt(0);
+        } else {
+            Instant i = t.toInstant();
+            out.putLong(i.getEpochSecond());
+            out.putInt(i.getNano());
+        }
+    }
+
+    private static OffsetDateTime getTime(ByteBuffer in) {
+        long seconds = in.getLong();
+        int nanos = in.getInt();
+        return seconds == NO_TIME ? null : Instant.ofEpochSecond(seconds, nanos).atOffset(ZoneOffset.UTC);
+    }
+
+    private static Integer optionalInt(int v) {
+        return v < 0 ? null : v;
+    }
+}
@@ -0,0 +1,194 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ResourceType;
+import com.strategygameapp.model.enums.TradeStatus;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.LongConsumer;
+
+/**
+ * All trade offers of one match, confined to the match's actor like the rest of {@link MatchState}.
+ * Offers are bucketed by status; open offers are also indexed by offering seat, by addressed seat
+ * (0 for offers open to anyone) and, for single-resource offers, by give/get pair in price-time order; they
+ * are also queued by expiry time. Status changes are
+ * collected for the write-behind flush instead of being written one by one.
+ */
+public class TradeBook {
+
+    private static final int RESOURCE_COUNT = ResourceType.values().length;
+
+    // Best terms for whoever takes the offer: most given per unit asked for, then oldest.
+    private static final Comparator<TradeEntry> PRIORITY = (a, b) -> {
+        int c = Long.compare((long) b.giveAmount(b.getGive()) * a.getAmount(a.getGet()),
+                (long) a.giveAmount(a.getGive()) * b.getAmount(b.getGet()));
+        return c != 0 ? c : Long.compare(a.getId(), b.getId());
+    };
+
+    private final Map<Long, TradeEntry> byId = new HashMap<>();
+    private final Map<TradeStatus, Map<Long, TradeEntry>> byStatus = new EnumMap<>(TradeStatus.class);
+    private final Map<Integer, Map<Long, TradeEntry>> openFrom = new HashMap<>();
+    private final Map<Integer, Map<Long, TradeEntry>> openTo = new HashMap<>();
+    private final List<NavigableSet<TradeEntry>> openByPair = new ArrayList<>(RESOURCE_COUNT * RESOURCE_COUNT);
+    private final PriorityQueue<TradeEntry> expiries =
+            new PriorityQueue<>((a, b) -> Long.compare(a.getExpiresAtMillis(), b.getExpiresAtMillis()));
+    private final Set<TradeEntry> changed = new LinkedHashSet<>();
+
+    private Runnable onChange = () -> {};
+    private LongConsumer onNextExpiry = at -> {};
+    private long expiryScheduledAt = Long.MAX_VALUE;
+
+    TradeBook(Collection<TradeEntry> entries) {
+        for (TradeStatus s : TradeStatus.values()) byStatus.put(s, new LinkedHashMap<>());
+        for (int i = 0; i < RESOURCE_COUNT * RESOURCE_COUNT; i++) openByPair.add(new TreeSet<>(PRIORITY));
+        for (TradeEntry e : entries) index(e);
+    }
+
+    void onChange(Runnable hook) {
+        this.onChange = hook;
+    }
+
+    /** Hook asked to run {@link #expireDue} at a given epoch-millis time; called only when that's sooner than before. */
+    void onNextExpiry(LongConsumer hook) {
+        this.onNextExpiry = hook;
+        expiryScheduledAt = Long.MAX_VALUE;
+        scheduleNextExpiry();
+    }
+
+    public TradeEntry get(long id) {
+        return byId.get(id);
+    }
+
+    /** Adds an offer already stored in trade_offers; an offer the book already holds is left as it is. */
+    public TradeEntry add(TradeEntry e) {
+        TradeEntry existing = byId.get(e.getId());
+        if (existing != null) return existing;
+        index(e);
+        scheduleNextExpiry();
+        return e;
+    }
+
+    public List<TradeEntry> list(TradeStatus status) {
+        if (status != null) return new ArrayList<>(byStatus.get(status).values());
+        List<TradeEntry> all = new ArrayList<>(byId.values());
+        all.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return all;
+    }
+
+    public Collection<TradeEntry> openFrom(int seat) {
+        return openFrom.getOrDefault(seat, Map.of()).values();
+    }
+
+    /** Open offers addressed to seat specifically (0 for offers open to anyone). */
+    public Collection<TradeEntry> openTo(int seat) {
+        return openTo.getOrDefault(seat, Map.of()).values();
+    }
+
+    /** Open single-resource offers giving give in exchange for get, best price first and oldest first within a price. */
+    public Collection<TradeEntry> open(ResourceType give, ResourceType get) {
+        return openByPair.get(pair(give, get));
+    }
+
+    public void close(TradeEntry e, TradeStatus status, Integer acceptedBySeat, OffsetDateTime at) {
+        if (!e.isOpen()) return;
+        unindexOpen(e);
+        byStatus.get(TradeStatus.OPEN).remove(e.getId());
+        e.close(status, acceptedBySeat, at);
+        byStatus.get(status).put(e.getId(), e);
+        changed.add(e);
+        onChange.run();
+    }
+
+    /** Expires every open offer whose time is up; returns how many were expired. */
+    public int expireDue(OffsetDateTime now) {
+        long nowMillis = now.toInstant().toEpochMilli();
+        int expired = 0;
+        while (!expiries.isEmpty() && expiries.peek().getExpiresAtMillis() < nowMillis) {
+            TradeEntry e = expiries.poll();
+            if (!e.isOpen()) continue;
+            close(e, TradeStatus.EXPIRED, null, now);
+            expired++;
+        }
+        scheduleNextExpiry();
+        return expired;
+    }
+
+    // The timer asked for by onNextExpiry has gone off, whether or not the wall clock agrees it's due yet.
+    void expiryTimerFired(OffsetDateTime now) {
+        expiryScheduledAt = Long.MAX_VALUE;
+        expireDue(now);
+    }
+
+    boolean hasChanges() {
+        return !changed.isEmpty();
+    }
+
+    TradeChange[] drainChanges() {
+        TradeChange[] out = new TradeChange[changed.size()];
+        int k = 0;
+        for (TradeEntry e : changed) {
+            out[k++] = new TradeChange(e.getId(), e.getStatus(), e.getAcceptedBySeat(), e.getClosedAt());
+        }
+        changed.clear();
+        return out;
+    }
+
+    void restore(TradeChange[] changes) {
+        for (TradeChange c : changes) {
+            TradeEntry e = byId.get(c.id());
+            if (e != null) changed.add(e);
+        }
+    }
+
+    private void index(TradeEntry e) {
+        byId.put(e.getId(), e);
+        byStatus.get(e.getStatus()).put(e.getId(), e);
+        if (!e.isOpen()) return;
+        openFrom.computeIfAbsent(e.getFrom(), s -> new LinkedHashMap<>()).put(e.getId(), e);
+        openTo.computeIfAbsent(Math.max(0, e.getTo()), s -> new LinkedHashMap<>()).put(e.getId(), e);
+        if (e.isSimple()) openByPair.get(pair(e.getGive(), e.getGet())).add(e);
+        expiries.add(e);
+    }
+
+    private void unindexOpen(TradeEntry e) {
+        removeFrom(openFrom, e.getFrom(), e);
+        removeFrom(openTo, Math.max(0, e.getTo()), e);
+        if (e.isSimple()) openByPair.get(pair(e.getGive(), e.getGet())).remove(e);
+    }
+
+    private static void removeFrom(Map<Integer, Map<Long, TradeEntry>> index, int seat, TradeEntry e) {
+        Map<Long, TradeEntry> bucket = index.get(seat);
+        if (bucket == null) return;
+        bucket.remove(e.getId());
+        if (bucket.isEmpty()) index.remove(seat);
+    }
+
+    // Closed offers stay queued until their time comes; drop them from the front so the head is a live deadline.
+    private void scheduleNextExpiry() {
+        while (!expiries.isEmpty() && !expiries.peek().isOpen()) expiries.poll();
+        if (expiries.isEmpty()) return;
+        long next = expiries.peek().getExpiresAtMillis();
+        if (next < expiryScheduledAt) {
+            expiryScheduledAt = next;
+            onNextExpiry.accept(next);
+        }
+    }
+
+    private static int pair(ResourceType give, ResourceType get) {
+        return give.ordinal() * RESOURCE_COUNT + get.ordinal();
+    }
+
+    record TradeChange(long id, TradeStatus status, Integer acceptedBySeat, OffsetDateTime closedAt) {}
+}
@@ -0,0 +1,104 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.TradeOffer;
+import com.strategygameapp.model.enums.ResourceType;
+import com.strategygameapp.model.enums.TradeStatus;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+
+/**
+ * In-memory copy of a trade_offers row, owned by its match's {@link TradeBook}. Each side is a
+ * {@link ResourceVector}; give/get name the first resource of each bundle.
+ */
+@Getter
+public class TradeEntry {
+    private final long id;
+    private final int from;
+    private final int to;
+    private final ResourceType give;
+    private final ResourceType get;
+    private final ResourceVector gives;
+    private final ResourceVector gets;
+    private final OffsetDateTime createdAt;
+    private final OffsetDateTime expiresAt;
+    private final long expiresAtMillis;
+    private TradeStatus status;
+    private Integer acceptedBySeat;
+    private OffsetDateTime closedAt;
+
+    TradeEntry(long id, int from, int to, ResourceVector gives, ResourceVector gets, ResourceType give, ResourceType get,
+               TradeStatus status, OffsetDateTime createdAt, OffsetDateTime expiresAt,
+               Integer acceptedBySeat, OffsetDateTime closedAt) {
+        this.id = id;
+        this.from = from;
+        this.to = to;
+        // Rows written before bundles existed have no amounts and always meant one unit of give for one of get.
+        this.gives = gives.isZero() ? ResourceVector.unit(give) : gives;
+        this.gets = gets.isZero() ? ResourceVector.unit(get) : gets;
+        this.give = give;
+        this.get = get;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.expiresAtMillis = expiresAt.toInstant().toEpochMilli();
+        this.acceptedBySeat = acceptedBySeat;
+        this.closedAt = closedAt;
+    }
+
+    public static TradeEntry of(TradeOffer t) {
+        return new TradeEntry(t.getId(), t.getFrom(), t.getTo(),
+                ResourceVector.of(t.getGiveWood(), t.getGiveStone(), t.getGiveGlass(), t.getGiveForce()),
+                ResourceVector.of(t.getGetWood(), t.getGetStone(), t.getGetGlass(), t.getGetForce()),
+                t.getGive(), t.getGet(), t.getStatus(),
+                t.getCreatedAt(), t.getExpiresAt(), t.getAcceptedBySeat(), t.getClosedAt());
+    }
+
+    void close(TradeStatus status, Integer acceptedBySeat, OffsetDateTime at) {
+        this.status = status;
+        this.acceptedBySeat = acceptedBySeat;
+        this.closedAt = at;
+    }
+
+    public boolean isOpen() {
+        return status == TradeStatus.OPEN;
+    }
+
+    public int giveAmount(ResourceType r) {
+        return gives.get(r);
+    }
+
+    public int getAmount(ResourceType r) {
+        return gets.get(r);
+    }
+
+    /** One resource for one other resource, in any quantities: the only shape the pair index and matcher handle. */
+    public boolean isSimple() {
+        return gives.kinds() == 1 && gets.kinds() == 1;
+    }
+
+    public TradeOffer toEntity(Match match) {
+        return TradeOffer.builder()
+                .id(id)
+                .match(match)
+                .from(from)
+                .to(to)
+                .give(give)
+                .get(get)
+                .giveWood(gives.get(ResourceType.WOOD))
+                .giveStone(gives.get(ResourceType.STONE))
+                .giveGlass(gives.get(ResourceType.GLASS))
+                .giveForce(gives.get(ResourceType.FORCE))
+                .getWood(gets.get(ResourceType.WOOD))
+                .getStone(gets.get(ResourceType.STONE))
+                .getGlass(gets.get(ResourceType.GLASS))
+                .getForce(gets.get(ResourceType.FORCE))
+                .status(status)
+                .createdAt(createdAt)
+                .expiresAt(expiresAt)
+                .acceptedBySeat(acceptedBySeat)
+                .closedAt(closedAt)
+                .build();
+    }
+}
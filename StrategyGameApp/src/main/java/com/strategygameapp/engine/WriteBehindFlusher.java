@@ -0,0 +1,121 @@
+package com.strategygameapp.engine;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WriteBehindFlusher {
+
+    private final MatchEngine engine;
+    private final MatchStateStore store;
+
+    @Value("${game.engine.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${game.engine.snapshot.every-entries:500}")
+    private long snapshotEvery;
+
+    @Value("${game.engine.snapshot.interval-ms:30000}")
+    private long snapshotIntervalMs;
+
+    @Value("${game.engine.flush-log-wait-ms:1000}")
+    private long logWaitMs;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "match-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    public synchronized void flush() {
+        List<MatchActor> drained = new ArrayList<>();
+        List<CompletableFuture<MatchChanges>> pending = new ArrayList<>();
+
+        for (MatchActor actor : engine.resident()) {
+            if (!actor.state().hasPendingChanges()) continue;
+            drained.add(actor);
+            pending.add(actor.call(s -> s.drainChanges(snapshotEvery, snapshotIntervalMs)));
+        }
+
+        List<MatchChanges> drainedChanges = pending.stream().map(MatchEngine::await).toList();
+
+        // Rows and snapshots never get ahead of the command log: recovery replays the log from a snapshot's
+        // position, and rows describing commands the log lost could never be reconciled with it.
+        awaitLogged(drained, drainedChanges);
+        List<MatchActor> ready = new ArrayList<>();
+        List<MatchChanges> batch = new ArrayList<>();
+        int deferred = 0;
+        for (int i = 0; i < drained.size(); i++) {
+            MatchActor actor = drained.get(i);
+            MatchChanges changes = drainedChanges.get(i);
+            if (actor.state().getWrittenLogSeq() >= changes.logSeq()) {
+                ready.add(actor);
+                batch.add(changes);
+            } else {
+                actor.post(() -> actor.state().restore(changes));
+                deferred++;
+            }
+        }
+        if (deferred > 0) log.warn("Command log is behind, deferred flushing {} matches", deferred);
+
+        if (!batch.isEmpty()) {
+            try {
+                store.write(batch);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < ready.size(); i++) {
+                    MatchActor actor = ready.get(i);
+                    MatchChanges changes = batch.get(i);
+                    actor.post(() -> actor.state().restore(changes));
+                }
+                throw e;
+            }
+        }
+
+        engine.evictSettled();
+    }
+
+    private void awaitLogged(List<MatchActor> actors, List<MatchChanges> changes) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(logWaitMs);
+        for (int i = 0; i < actors.size(); i++) {
+            MatchState state = actors.get(i).state();
+            while (state.getWrittenLogSeq() < changes.get(i).logSeq() && System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Match state flush failed, will retry: {}", e.getMessage());
+        }
+    }
+}
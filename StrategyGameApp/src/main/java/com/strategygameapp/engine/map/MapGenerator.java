@@ -0,0 +1,13 @@
+package com.strategygameapp.engine.map;
+
+/**
+ * Fills a board with regions. Implementations are Spring beans looked up by {@link #name()}; a generator must be
+ * deterministic in (width, height, seed) so a match's map can always be produced again.
+ */
+public interface MapGenerator {
+
+    String name();
+
+    /** Writes RegionType ordinals into regions, row-major (index = y * width + x). */
+    void generate(int width, int height, long seed, byte[] regions);
+}
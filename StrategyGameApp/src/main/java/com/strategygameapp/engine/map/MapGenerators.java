@@ -0,0 +1,31 @@
+package com.strategygameapp.engine.map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class MapGenerators {
+
+    private final Map<String, MapGenerator> byName;
+
+    @Value("${game.map.generator:voronoi}")
+    private String defaultName;
+
+    public MapGenerators(List<MapGenerator> generators) {
+        this.byName = generators.stream().collect(Collectors.toMap(MapGenerator::name, Function.identity()));
+    }
+
+    public String defaultName() {
+        return defaultName;
+    }
+
+    public Optional<MapGenerator> get(String name) {
+        return Optional.ofNullable(byName.get(name == null ? defaultName : name));
+    }
+}
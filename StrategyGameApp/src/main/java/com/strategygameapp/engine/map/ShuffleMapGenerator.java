@@ -0,0 +1,33 @@
+package com.strategygameapp.engine.map;
+
+import com.strategygameapp.engine.MatchRandom;
+import com.strategygameapp.model.enums.RegionType;
+import org.springframework.stereotype.Component;
+
+import java.util.random.RandomGenerator;
+
+/** Equal shares of every region, shuffled cell by cell. */
+@Component
+public class ShuffleMapGenerator implements MapGenerator {
+
+    private static final int REGION_COUNT = RegionType.values().length;
+
+    @Override
+    public String name() {
+        return "shuffle";
+    }
+
+    @Override
+    public void generate(int width, int height, long seed, byte[] regions) {
+        RandomGenerator rnd = MatchRandom.map(seed);
+        for (int i = 0; i < regions.length; i++) {
+            regions[i] = (byte) (i % REGION_COUNT);
+        }
+        for (int i = regions.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            byte t = regions[i];
+            regions[i] = regions[j];
+            regions[j] = t;
+        }
+    }
+}
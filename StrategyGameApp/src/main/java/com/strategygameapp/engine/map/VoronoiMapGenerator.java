@@ -0,0 +1,153 @@
+package com.strategygameapp.engine.map;
+
+import com.strategygameapp.engine.MatchRandom;
+import com.strategygameapp.model.enums.RegionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Coherent regions from a jittered-grid Voronoi diagram. The board is divided into square grid cells, each
+ * holding one site at a random offset with a random region; every board cell takes the region of the nearest
+ * site in its own and the eight surrounding grid cells. Sites are a pure function of seed and grid position,
+ * so bands of grid rows are filled independently on the common ForkJoinPool, and a grid cell whose
+ * neighbouring sites all share a region is filled without any distance checks.
+ */
+@Component
+public class VoronoiMapGenerator implements MapGenerator {
+
+    private static final int REGION_COUNT = RegionType.values().length;
+
+    @Value("${game.map.voronoi.cell-size:6}")
+    private int cellSize;
+
+    // Boards up to this many cells are filled on the calling thread; larger ones split into bands of about this size.
+    @Value("${game.map.parallel-threshold:65536}")
+    private int parallelThreshold;
+
+    @Override
+    public String name() {
+        return "voronoi";
+    }
+
+    @Override
+    public void generate(int width, int height, long seed, byte[] regions) {
+        // Small boards get smaller grid cells, so there are still a few sites of each region.
+        int spacing = Math.max(1, Math.min(cellSize, (int) Math.sqrt(width * (double) height / (2.0 * REGION_COUNT))));
+        Sites sites = new Sites(width, height, spacing, seed);
+        Fill fill = new Fill(sites, height, regions, 0, sites.rows, Math.max(1, parallelThreshold / (width * spacing)));
+        if ((long) width * height <= parallelThreshold) fill.compute();
+        else ForkJoinPool.commonPool().invoke(fill);
+    }
+
+    private static final class Sites {
+        final int width;
+        final int spacing;
+        final int cols;
+        final int rows;
+        final int[] x;
+        final int[] y;
+        final byte[] region;
+
+        Sites(int width, int height, int spacing, long seed) {
+            this.width = width;
+            this.spacing = spacing;
+            this.cols = (width + spacing - 1) / spacing;
+            this.rows = (height + spacing - 1) / spacing;
+            this.x = new int[cols * rows];
+            this.y = new int[cols * rows];
+            this.region = new byte[cols * rows];
+            long base = MatchRandom.map(seed).nextLong();
+            for (int gy = 0; gy < rows; gy++) {
+                for (int gx = 0; gx < cols; gx++) {
+                    int i = gy * cols + gx;
+                    long h = MatchRandom.mix(base + i);
+                    x[i] = gx * spacing + (int) Math.floorMod(h, (long) spacing);
+                    y[i] = gy * spacing + (int) Math.floorMod(h >>> 21, (long) spacing);
+                    region[i] = (byte) Math.floorMod(h >>> 42, (long) REGION_COUNT);
+                }
+            }
+        }
+
+        /** Fills the board cells covered by one grid cell, comparing only the sites around it. */
+        void fillBlock(int gx, int gy, int height, byte[] out) {
+            int n = 0;
+            int[] cx = new int[9];
+            int[] cy = new int[9];
+            byte[] cr = new byte[9];
+            boolean uniform = true;
+            for (int ny = Math.max(0, gy - 1); ny <= Math.min(rows - 1, gy + 1); ny++) {
+                for (int nx = Math.max(0, gx - 1); nx <= Math.min(cols - 1, gx + 1); nx++) {
+                    int i = ny * cols + nx;
+                    cx[n] = x[i];
+                    cy[n] = y[i];
+                    cr[n] = region[i];
+                    uniform &= cr[n] == cr[0];
+                    n++;
+                }
+            }
+
+            int x0 = gx * spacing;
+            int x1 = Math.min(width, x0 + spacing);
+            int y1 = Math.min(height, (gy + 1) * spacing);
+            for (int py = gy * spacing; py < y1; py++) {
+                int row = py * width;
+                if (uniform) {
+                    Arrays.fill(out, row + x0, row + x1, cr[0]);
+                    continue;
+                }
+                for (int px = x0; px < x1; px++) {
+                    int best = 0;
+                    int bestDist = Integer.MAX_VALUE;
+                    for (int k = 0; k < n; k++) {
+                        int dx = cx[k] - px;
+                        int dy = cy[k] - py;
+                        int d = dx * dx + dy * dy;
+                        if (d < bestDist) {
+                            bestDist = d;
+                            best = k;
+                        }
+                    }
+                    out[row + px] = cr[best];
+                }
+            }
+        }
+    }
+
+    private static final class Fill extends RecursiveAction {
+        private final Sites sites;
+        private final int height;
+        private final byte[] out;
+        private final int fromRow;
+        private final int toRow;
+        private final int bandRows;
+
+        // Rows here are rows of grid cells.
+        Fill(Sites sites, int height, byte[] out, int fromRow, int toRow, int bandRows) {
+            this.sites = sites;
+            this.height = height;
+            this.out = out;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.bandRows = bandRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow > bandRows) {
+                int mid = (fromRow + toRow) >>> 1;
+                invokeAll(new Fill(sites, height, out, fromRow, mid, bandRows),
+                        new Fill(sites, height, out, mid, toRow, bandRows));
+                return;
+            }
+            for (int gy = fromRow; gy < toRow; gy++) {
+                for (int gx = 0; gx < sites.cols; gx++) {
+                    sites.fillBlock(gx, gy, height, out);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.strategygameapp.engine.rules;
+
+import com.strategygameapp.engine.ResourceVector;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Ruleset} compiled into flat tables indexed by {@link RegionType} ordinal (and by house count for the
+ * yield multiplier), so the engine reads its numbers with array lookups. Immutable and shared by every match
+ * playing under the same ruleset.
+ */
+public final class Rules {
+
+    private static final RegionType[] REGIONS = RegionType.values();
+    // Hits are kept one byte per cell.
+    private static final int MAX_HITS = Byte.MAX_VALUE;
+
+    private final String name;
+    private final ResourceVector[] buildCost;
+    private final ResourceVector[] yield;
+    private final ResourceType[] heads;
+    private final ResourceType[] tails;
+    private final int[] perHouse;
+    private final int hitsToDestroy;
+    private final int startLightning;
+    private final ResourceVector start;
+
+    private Rules(String name, Ruleset r) {
+        this.name = name;
+        this.buildCost = new ResourceVector[REGIONS.length];
+        this.yield = new ResourceVector[REGIONS.length];
+        this.heads = new ResourceType[REGIONS.length];
+        this.tails = new ResourceType[REGIONS.length];
+        for (RegionType region : REGIONS) {
+            buildCost[region.ordinal()] = vector(name, "build-cost." + region, r.getBuildCost().get(region));
+            yield[region.ordinal()] = vector(name, "yield." + region, r.getYield().get(region));
+            List<ResourceType> flip = r.getCoinFlip().get(region);
+            if (flip == null || flip.isEmpty()) continue;
+            if (flip.size() != 2 || flip.get(0) == flip.get(1)) {
+                throw invalid(name, "coin-flip." + region + " needs two different resources");
+            }
+            heads[region.ordinal()] = flip.get(0);
+            tails[region.ordinal()] = flip.get(1);
+        }
+
+        if (r.getBonusThreshold() < 1) throw invalid(name, "bonus-threshold must be >= 1");
+        if (r.getBonusPerHouse() < 0) throw invalid(name, "bonus-per-house must be >= 0");
+        this.perHouse = new int[r.getBonusThreshold() + 1];
+        for (int n = 0; n < perHouse.length; n++) {
+            perHouse[n] = n >= r.getBonusThreshold() ? 1 + r.getBonusPerHouse() : 1;
+        }
+
+        if (r.getHitsToDestroy() < 1 || r.getHitsToDestroy() > MAX_HITS) {
+            throw invalid(name, "hits-to-destroy must be between 1 and " + MAX_HITS);
+        }
+        this.hitsToDestroy = r.getHitsToDestroy();
+        if (r.getStartLightning() < 0) throw invalid(name, "start-lightning must be >= 0");
+        this.startLightning = r.getStartLightning();
+        this.start = vector(name, "start", r.getStart());
+    }
+
+    public static Rules compile(String name, Ruleset ruleset) {
+        return new Rules(name, ruleset);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ResourceVector buildCost(RegionType r) {
+        return buildCost[r.ordinal()];
+    }
+
+    /** What each house in region r yields on every gain. */
+    public ResourceVector yield(RegionType r) {
+        return yield[r.ordinal()];
+    }
+
+    /** Resource a house in region r yields when its coin comes up heads; null if the region flips no coin. */
+    public ResourceType heads(RegionType r) {
+        return heads[r.ordinal()];
+    }
+
+    public ResourceType tails(RegionType r) {
+        return tails[r.ordinal()];
+    }
+
+    /** Yield multiplier for a seat owning count houses in one region. */
+    public int perHouse(int count) {
+        return perHouse[Math.min(count, perHouse.length - 1)];
+    }
+
+    /** House count from which each house in a region yields the bonus. */
+    public int bonusThreshold() {
+        return perHouse.length - 1;
+    }
+
+    public int bonusPerHouse() {
+        return perHouse[perHouse.length - 1] - 1;
+    }
+
+    public int hitsToDestroy() {
+        return hitsToDestroy;
+    }
+
+    public int startLightning() {
+        return startLightning;
+    }
+
+    public ResourceVector start() {
+        return start;
+    }
+
+    private static ResourceVector vector(String name, String key, Map<ResourceType, Integer> amounts) {
+        if (amounts == null || amounts.isEmpty()) return ResourceVector.ZERO;
+        int[] lanes = new int[ResourceVector.LANES];
+        for (Map.Entry<ResourceType, Integer> e : amounts.entrySet()) {
+            int n = e.getValue() == null ? 0 : e.getValue();
+            if (n < 0) throw invalid(name, key + "." + e.getKey() + " must be >= 0");
+            lanes[e.getKey().ordinal()] = n;
+        }
+        return ResourceVector.of(lanes);
+    }
+
+    private static IllegalStateException invalid(String name, String msg) {
+        return new IllegalStateException("game.rules.sets." + name + "." + msg);
+    }
+}
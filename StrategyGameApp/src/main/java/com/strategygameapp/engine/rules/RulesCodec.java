@@ -0,0 +1,85 @@
+package com.strategygameapp.engine.rules;
+
+import com.strategygameapp.engine.ResourceVector;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes compiled {@link Rules} into the copy a match is stored with, so it keeps playing, and replays, under
+ * the numbers it was created with whatever the configuration says later. Decoding compiles the copy again, with
+ * the same validation as a configured ruleset.
+ */
+public final class RulesCodec {
+
+    private static final int FORMAT = 1;
+    private static final RegionType[] REGIONS = RegionType.values();
+    private static final ResourceType[] RESOURCES = ResourceType.values();
+    private static final int NONE = -1;
+
+    private RulesCodec() {}
+
+    public static byte[] encode(Rules r) {
+        byte[] name = r.name().getBytes(StandardCharsets.UTF_8);
+        int vector = RESOURCES.length * 4;
+        ByteBuffer out = ByteBuffer.allocate(4 + 4 + name.length + 4 * 4 + vector
+                + 4 + REGIONS.length * (2 * vector + 2));
+        out.putInt(FORMAT);
+        out.putInt(name.length);
+        out.put(name);
+        out.putInt(r.startLightning());
+        putVector(out, r.start());
+        out.putInt(r.bonusThreshold());
+        out.putInt(r.bonusPerHouse());
+        out.putInt(r.hitsToDestroy());
+        out.putInt(REGIONS.length);
+        for (RegionType region : REGIONS) {
+            putVector(out, r.buildCost(region));
+            putVector(out, r.yield(region));
+            ResourceType heads = r.heads(region);
+            out.put((byte) (heads == null ? NONE : heads.ordinal()));
+            out.put((byte) (heads == null ? NONE : r.tails(region).ordinal()));
+        }
+        return out.array();
+    }
+
+    public static Rules decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int format = in.getInt();
+        if (format != FORMAT) throw new IllegalStateException("Unknown rules format " + format);
+        byte[] name = new byte[in.getInt()];
+        in.get(name);
+
+        Ruleset set = new Ruleset();
+        set.setStartLightning(in.getInt());
+        set.setStart(getVector(in));
+        set.setBonusThreshold(in.getInt());
+        set.setBonusPerHouse(in.getInt());
+        set.setHitsToDestroy(in.getInt());
+        int regions = in.getInt();
+        if (regions != REGIONS.length) throw new IllegalStateException("Stored rules cover " + regions + " regions");
+        for (RegionType region : REGIONS) {
+            set.getBuildCost().put(region, getVector(in));
+            set.getYield().put(region, getVector(in));
+            int heads = in.get();
+            int tails = in.get();
+            if (heads != NONE) set.getCoinFlip().put(region, List.of(RESOURCES[heads], RESOURCES[tails]));
+        }
+        return Rules.compile(new String(name, StandardCharsets.UTF_8), set);
+    }
+
+    private static void putVector(ByteBuffer out, ResourceVector v) {
+        for (ResourceType r : RESOURCES) out.putInt(v.get(r));
+    }
+
+    private static Map<ResourceType, Integer> getVector(ByteBuffer in) {
+        Map<ResourceType, Integer> amounts = new EnumMap<>(ResourceType.class);
+        for (ResourceType r : RESOURCES) amounts.put(r, in.getInt());
+        return amounts;
+    }
+}
@@ -0,0 +1,25 @@
+package com.strategygameapp.engine.rules;
+
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+import lombok.Data;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/** One named set of balancing numbers as written under game.rules.sets.&lt;name&gt;; see {@link Rules} for the compiled form. */
+@Data
+public class Ruleset {
+    private int startLightning;
+    private Map<ResourceType, Integer> start = new EnumMap<>(ResourceType.class);
+    private Map<RegionType, Map<ResourceType, Integer>> buildCost = new EnumMap<>(RegionType.class);
+    // Per house, every gain.
+    private Map<RegionType, Map<ResourceType, Integer>> yield = new EnumMap<>(RegionType.class);
+    // Per house, one of two resources with equal odds, on top of yield.
+    private Map<RegionType, List<ResourceType>> coinFlip = new EnumMap<>(RegionType.class);
+    // Owning this many houses in a region makes each of them yield bonusPerHouse times more.
+    private int bonusThreshold = 2;
+    private int bonusPerHouse = 1;
+    private int hitsToDestroy = 3;
+}
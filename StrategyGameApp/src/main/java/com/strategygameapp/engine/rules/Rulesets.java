@@ -0,0 +1,62 @@
+package com.strategygameapp.engine.rules;
+
+import com.strategygameapp.model.Match;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The rulesets configured under game.rules.sets, each compiled once at startup. A match picks its ruleset when
+ * it's created and is stored with a copy of it (see {@link RulesCodec}); variants can be added to the
+ * configuration and played side by side with the default, and editing one only affects matches created after.
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "game.rules")
+public class Rulesets {
+
+    private String defaultRuleset = "standard";
+    private Map<String, Ruleset> sets = new LinkedHashMap<>();
+
+    private final Map<String, Rules> compiled = new HashMap<>();
+    // Stored copies by content, so every match on the same numbers shares one instance.
+    private final Map<ByteBuffer, Rules> stored = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void compile() {
+        sets.forEach((name, set) -> {
+            Rules rules = Rules.compile(name, set);
+            compiled.put(name, rules);
+            stored.put(ByteBuffer.wrap(RulesCodec.encode(rules)), rules);
+        });
+        if (!compiled.containsKey(defaultRuleset)) {
+            throw new IllegalStateException("game.rules.default-ruleset=" + defaultRuleset + " is not configured");
+        }
+    }
+
+    public Optional<Rules> get(String name) {
+        return Optional.ofNullable(compiled.get(name == null ? defaultRuleset : name));
+    }
+
+    /**
+     * Rules of a stored match: the copy it was created with. A match stored before copies were kept has only the
+     * name, which must still be configured; no match falls back to another ruleset, since replaying its log under
+     * other numbers would diverge.
+     */
+    public Rules forMatch(Match m) {
+        byte[] data = m.getRulesData();
+        if (data != null) return stored.computeIfAbsent(ByteBuffer.wrap(data), k -> RulesCodec.decode(data));
+        return get(m.getRuleset()).orElseThrow(() -> new IllegalStateException(
+                "Match " + m.getId() + " plays ruleset " + m.getRuleset() + ", which is not configured"));
+    }
+}
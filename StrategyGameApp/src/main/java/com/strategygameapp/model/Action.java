@@ -6,7 +6,11 @@ import lombok.*;
 import java.time.OffsetDateTime;
 
 @Entity
-@Table(name = "action_events")
+@Table(name = "action_events",
+        indexes = {
+                @Index(name = "idx_action_events_match_seq", columnList = "match_id, seq")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,11 +28,20 @@ public class Action {
     @Column(nullable = false)
     private ActionType type;
 
+    private Long seq;
+
     private int playerSeat;
 
+    private Integer x;
+
+    private Integer y;
+
     @Column(length = 500)
     private String message;
 
+    @Column(length = 4000)
+    private String payload;
+
     @Column(nullable = false)
     private OffsetDateTime ts;
 
@@ -0,0 +1,34 @@
+package com.strategygameapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity @Table(name = "action_archives")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ActionArchive {
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @MapsId
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "match_id", nullable = false, foreignKey = @ForeignKey(name = "fk_action_archives_match"))
+    private Match match;
+
+    @Column(nullable = false)
+    private int eventCount;
+
+    private Long lastSeq;
+
+    private OffsetDateTime firstTs;
+
+    private OffsetDateTime lastTs;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
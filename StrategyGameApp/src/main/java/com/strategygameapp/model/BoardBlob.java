@@ -0,0 +1,29 @@
+package com.strategygameapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity @Table(name = "board_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardBlob {
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @MapsId
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "match_id", nullable = false, foreignKey = @ForeignKey(name = "fk_board_blobs_match"))
+    private Match match;
+
+    @Column(nullable = false)
+    private int width;
+
+    @Column(nullable = false)
+    private int height;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
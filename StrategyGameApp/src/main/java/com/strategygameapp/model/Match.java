@@ -30,6 +30,19 @@ public class Match {
     @Column(nullable = false)
     private int height;
 
+    @Column(updatable = false)
+    private Long seed;
+
+    @Column(length = 32, updatable = false)
+    private String mapGenerator;
+
+    @Column(length = 64, updatable = false)
+    private String ruleset;
+
+    // The compiled ruleset as it was when the match was created; see RulesCodec.
+    @Column(updatable = false, columnDefinition = "bytea")
+    private byte[] rulesData;
+
     private Integer currentTurn;
 
     private Integer winnerSeat;
@@ -0,0 +1,31 @@
+package com.strategygameapp.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity @Table(name = "match_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchSnapshot {
+    @Id
+    @Column(name = "match_id")
+    private Long matchId;
+
+    @MapsId
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "match_id", nullable = false, foreignKey = @ForeignKey(name = "fk_match_snapshots_match"))
+    private Match match;
+
+    @Column(nullable = false)
+    private long logSeq;
+
+    @Column(nullable = false)
+    private OffsetDateTime takenAt;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
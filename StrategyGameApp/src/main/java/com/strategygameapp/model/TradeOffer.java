@@ -35,6 +35,31 @@ public class TradeOffer {
     @Column(name = "get_resource",nullable = false, length = 20)
     private ResourceType get;
 
+    // Amount of each resource on either side; give/get above name the first resource of each bundle.
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int giveWood;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int giveStone;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int giveGlass;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int giveForce;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int getWood;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int getStone;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int getGlass;
+
+    @Column(nullable = false, columnDefinition = "integer default 0")
+    private int getForce;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     private TradeStatus status;
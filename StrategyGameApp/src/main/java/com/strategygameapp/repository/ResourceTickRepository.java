@@ -0,0 +1,148 @@
+package com.strategygameapp.repository;
+
+import com.strategygameapp.engine.ResourceVector;
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+@Repository
+@RequiredArgsConstructor
+public class ResourceTickRepository {
+
+    private static final RegionType[] REGIONS = RegionType.values();
+
+    // One rules row per (rules, region) comes in as parallel arrays, numbered per distinct Rules instance, and
+    // each match names the number of the rules it plays: the copy it was stored with, not the configured one.
+    // Each seat's row also returns the houses it was paid for, per region in ordinal order, so the caller can
+    // check them against the in-memory board the persisted one may trail.
+    private static final String APPLY_RESOURCE_GAIN = """
+            WITH rules AS (
+                SELECT *
+                FROM unnest(?::int[], ?::varchar[], ?::int[], ?::int[], ?::int[], ?::int[],
+                            ?::varchar[], ?::varchar[], ?::int[], ?::int[])
+                     AS r(ruleset, region, wood, stone, glass, force, heads, tails, threshold, bonus)
+            ), houses AS (
+                SELECT c.match_id, c.owner AS seat, c.region, t.ruleset,
+                       count(*) OVER (PARTITION BY c.match_id, c.owner, c.region) AS cnt
+                FROM board_cells c
+                JOIN matches m ON m.id = c.match_id
+                JOIN unnest(?::bigint[], ?::int[]) AS t(match_id, ruleset) ON t.match_id = c.match_id
+                WHERE m.status = 'RUNNING' AND c.owner >= 0
+            ), yields AS (
+                SELECT h.match_id, h.seat, h.region, r.wood, r.stone, r.glass, r.force,
+                       CASE WHEN h.cnt >= r.threshold THEN 1 + r.bonus ELSE 1 END AS per_house,
+                       CASE WHEN r.heads IS NULL THEN NULL
+                            WHEN random() < 0.5 THEN r.heads
+                            ELSE r.tails
+                       END AS flip
+                FROM houses h
+                JOIN rules r ON r.ruleset = h.ruleset AND r.region = h.region
+            ), gains AS (
+                SELECT match_id, seat,
+                       sum(per_house * (wood  + CASE WHEN flip = 'WOOD'  THEN 1 ELSE 0 END)) AS wood,
+                       sum(per_house * (stone + CASE WHEN flip = 'STONE' THEN 1 ELSE 0 END)) AS stone,
+                       sum(per_house * (glass + CASE WHEN flip = 'GLASS' THEN 1 ELSE 0 END)) AS glass,
+                       sum(per_house * (force + CASE WHEN flip = 'FORCE' THEN 1 ELSE 0 END)) AS force,
+                       ARRAY[%s]::int[] AS houses
+                FROM yields
+                GROUP BY match_id, seat
+            )
+            UPDATE match_players p
+            SET wood  = p.wood  + g.wood,
+                stone = p.stone + g.stone,
+                glass = p.glass + g.glass,
+                force = p.force + g.force
+            FROM gains g
+            WHERE p.match_id = g.match_id AND p.seat = g.seat AND p.alive
+            RETURNING p.match_id, p.seat, g.wood, g.stone, g.glass, g.force, g.houses
+            """.formatted(housesByRegion());
+
+    private static final RowMapper<SeatDelta> SEAT_DELTA = (rs, n) -> {
+        Integer[] houses = (Integer[]) rs.getArray(7).getArray();
+        int[] byRegion = new int[houses.length];
+        for (int i = 0; i < houses.length; i++) byRegion[i] = houses[i];
+        return new SeatDelta(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getInt(6),
+                byRegion);
+    };
+
+    private final JdbcTemplate jdbc;
+
+    /** Applies one gain to the given running matches, each under its own rules. */
+    public List<SeatDelta> applyResourceGain(Map<Long, Rules> matches) {
+        Map<Rules, Integer> numbers = new IdentityHashMap<>();
+        Long[] ids = new Long[matches.size()];
+        Integer[] ofMatch = new Integer[matches.size()];
+        int k = 0;
+        for (Map.Entry<Long, Rules> e : matches.entrySet()) {
+            ids[k] = e.getKey();
+            ofMatch[k++] = numbers.computeIfAbsent(e.getValue(), r -> numbers.size());
+        }
+
+        int rows = numbers.size() * REGIONS.length;
+        Integer[] ruleset = new Integer[rows];
+        String[] region = new String[rows];
+        Integer[] wood = new Integer[rows];
+        Integer[] stone = new Integer[rows];
+        Integer[] glass = new Integer[rows];
+        Integer[] force = new Integer[rows];
+        String[] heads = new String[rows];
+        String[] tails = new String[rows];
+        Integer[] threshold = new Integer[rows];
+        Integer[] bonus = new Integer[rows];
+
+        int i = 0;
+        for (Map.Entry<Rules, Integer> e : numbers.entrySet()) {
+            Rules r = e.getKey();
+            for (RegionType reg : REGIONS) {
+                ResourceVector y = r.yield(reg);
+                ruleset[i] = e.getValue();
+                region[i] = reg.name();
+                wood[i] = y.get(ResourceType.WOOD);
+                stone[i] = y.get(ResourceType.STONE);
+                glass[i] = y.get(ResourceType.GLASS);
+                force[i] = y.get(ResourceType.FORCE);
+                heads[i] = r.heads(reg) == null ? null : r.heads(reg).name();
+                tails[i] = r.tails(reg) == null ? null : r.tails(reg).name();
+                threshold[i] = r.bonusThreshold();
+                bonus[i] = r.bonusPerHouse();
+                i++;
+            }
+        }
+
+        return jdbc.query(APPLY_RESOURCE_GAIN, (PreparedStatementSetter) ps -> {
+            Connection c = ps.getConnection();
+            ps.setArray(1, c.createArrayOf("integer", ruleset));
+            ps.setArray(2, c.createArrayOf("varchar", region));
+            ps.setArray(3, c.createArrayOf("integer", wood));
+            ps.setArray(4, c.createArrayOf("integer", stone));
+            ps.setArray(5, c.createArrayOf("integer", glass));
+            ps.setArray(6, c.createArrayOf("integer", force));
+            ps.setArray(7, c.createArrayOf("varchar", heads));
+            ps.setArray(8, c.createArrayOf("varchar", tails));
+            ps.setArray(9, c.createArrayOf("integer", threshold));
+            ps.setArray(10, c.createArrayOf("integer", bonus));
+            ps.setArray(11, c.createArrayOf("int8", ids));
+            ps.setArray(12, c.createArrayOf("integer", ofMatch));
+        }, SEAT_DELTA);
+    }
+
+    private static String housesByRegion() {
+        StringJoiner out = new StringJoiner(", ");
+        for (RegionType r : REGIONS) out.add("count(*) FILTER (WHERE region = '" + r.name() + "')");
+        return out.toString();
+    }
+
+    /** What one seat gained, and the houses per region ordinal the gain was computed from. */
+    public record SeatDelta(long matchId, int seat, int wood, int stone, int glass, int force, int[] houses) {}
+}
@@ -0,0 +1,147 @@
+package com.strategygameapp.scheduler;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-threaded hashed timing wheel. Scheduling and cancelling are O(1) and lock-free for callers;
+ * all bucket bookkeeping happens on the wheel thread. Tasks run on the wheel thread and must only
+ * hand work off (e.g. to an executor), never block.
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        int size = Integer.highestOneBit(Math.max(1, ticksPerWheel - 1)) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return enqueue(new Timeout(task, elapsed() + unit.toNanos(delay), 0));
+    }
+
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return enqueue(new Timeout(task, elapsed() + unit.toNanos(initialDelay), unit.toNanos(period)));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private Timeout enqueue(Timeout timeout) {
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private long elapsed() {
+        return System.nanoTime() - startNanos;
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = (tick + 1) * tickNanos;
+            long sleep = deadline - elapsed();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferPending();
+            expire(buckets[(int) (tick & mask)], deadline);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout t;
+        while ((t = pending.poll()) != null) {
+            if (t.cancelled) continue;
+            place(t);
+        }
+    }
+
+    private void place(Timeout t) {
+        long ticks = Math.max(t.deadline / tickNanos, tick);
+        t.remainingRounds = (ticks - tick) / buckets.length;
+        buckets[(int) (ticks & mask)].add(t);
+    }
+
+    private void expire(List<Timeout> bucket, long now) {
+        List<Timeout> due = null;
+        int keep = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Timeout t = bucket.get(i);
+            if (t.cancelled) continue;
+            if (t.remainingRounds > 0 || t.deadline > now) {
+                if (t.remainingRounds > 0) t.remainingRounds--;
+                bucket.set(keep++, t);
+                continue;
+            }
+            if (due == null) due = new ArrayList<>();
+            due.add(t);
+        }
+        bucket.subList(keep, bucket.size()).clear();
+
+        if (due == null) return;
+        for (Timeout t : due) {
+            try {
+                t.task.run();
+            } catch (RuntimeException e) {
+                log.error("Timing wheel task failed", e);
+            }
+            if (t.period > 0 && !t.cancelled) {
+                t.deadline += t.period;
+                place(t);
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long period;
+        private long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
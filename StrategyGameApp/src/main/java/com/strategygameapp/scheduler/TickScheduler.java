@@ -0,0 +1,185 @@
+package com.strategygameapp.scheduler;
+
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.repository.MatchRepository;
+import com.strategygameapp.service.ResourceService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TickScheduler {
+
+    private final ResourceService resourceService;
+    private final MatchRepository matchRepo;
+
+    private final ConcurrentHashMap<Long, MatchTicker> running = new ConcurrentHashMap<>();
+    private final AtomicLong droppedTicks = new AtomicLong();
+
+    @Value("${game.ticks.resource-period-ms:2000}")
+    private long resourcePeriodMs;
+
+    @Value("${game.ticks.lightning-every:10}")
+    private int lightningEvery;
+
+    @Value("${game.ticks.resolution-ms:50}")
+    private long resolutionMs;
+
+    @Value("${game.ticks.workers:4}")
+    private int workers;
+
+    @Value("${game.ticks.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private HashedTimingWheel wheel;
+    private ThreadPoolExecutor tickWorkers;
+
+    @PostConstruct
+    void start() {
+        wheel = new HashedTimingWheel("tick-wheel", resolutionMs, TimeUnit.MILLISECONDS,
+                (int) Math.max(1, resourcePeriodMs / resolutionMs));
+
+        AtomicInteger seq = new AtomicInteger();
+        tickWorkers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "tick-worker-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        if (resourceService.isBulkMode()) {
+            wheel.scheduleAtFixedRate(new BulkTicker(), resourcePeriodMs, resourcePeriodMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        wheel.close();
+        tickWorkers.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void trackRunningMatches() {
+        for (Match m : matchRepo.findByStatus(MatchStatus.RUNNING)) {
+            track(m.getId());
+        }
+    }
+
+    public void track(Long matchId) {
+        if (resourceService.isBulkMode()) return;
+        running.computeIfAbsent(matchId, id -> {
+            MatchTicker ticker = new MatchTicker(id);
+            ticker.timeout = wheel.scheduleAtFixedRate(ticker, phaseOf(id), resourcePeriodMs, TimeUnit.MILLISECONDS);
+            return ticker;
+        });
+    }
+
+    public void untrack(Long matchId) {
+        MatchTicker ticker = running.remove(matchId);
+        if (ticker != null) ticker.timeout.cancel();
+    }
+
+    public int trackedMatches() {
+        return running.size();
+    }
+
+    public long droppedTicks() {
+        return droppedTicks.get();
+    }
+
+    // Spread matches evenly over the period so their ticks don't all land on the same wheel slot.
+    private long phaseOf(long matchId) {
+        long h = matchId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(h ^ (h >>> 32), resourcePeriodMs);
+    }
+
+    private final class MatchTicker implements Runnable {
+        private final long matchId;
+        private HashedTimingWheel.Timeout timeout;
+        private int ticks;
+        private volatile boolean inFlight;
+
+        private MatchTicker(long matchId) {
+            this.matchId = matchId;
+        }
+
+        @Override
+        public void run() {
+            if (inFlight) {
+                droppedTicks.incrementAndGet();
+                return;
+            }
+            boolean recharge = ++ticks % lightningEvery == 0;
+            inFlight = true;
+            try {
+                tickWorkers.execute(() -> dispatch(recharge));
+            } catch (RejectedExecutionException e) {
+                inFlight = false;
+                droppedTicks.incrementAndGet();
+            }
+        }
+
+        private void dispatch(boolean recharge) {
+            try {
+                resourceService.tick(matchId, recharge).whenComplete((stillRunning, e) -> {
+                    inFlight = false;
+                    if (e != null) {
+                        log.warn("Resource tick for match {} failed: {}", matchId, e.getMessage());
+                    } else if (!stillRunning) {
+                        untrack(matchId);
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight = false;
+                log.warn("Resource tick for match {} failed: {}", matchId, e.getMessage());
+            }
+        }
+    }
+
+    // In SQL mode a single wheel entry ticks every RUNNING match with one statement per period.
+    private final class BulkTicker implements Runnable {
+        private int ticks;
+        private volatile boolean inFlight;
+
+        @Override
+        public void run() {
+            if (inFlight) {
+                droppedTicks.incrementAndGet();
+                return;
+            }
+            boolean recharge = ++ticks % lightningEvery == 0;
+            inFlight = true;
+            try {
+                tickWorkers.execute(() -> {
+                    try {
+                        resourceService.resourceGainAll(recharge);
+                    } catch (RuntimeException e) {
+                        log.warn("Bulk resource tick failed: {}", e.getMessage());
+                    } finally {
+                        inFlight = false;
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight = false;
+                droppedTicks.incrementAndGet();
+            }
+        }
+    }
+}
@@ -1,110 +1,170 @@
 package com.strategygameapp.service;
 
 import com.strategygameapp.dto.action.*;
-import com.strategygameapp.model.Action;
-import com.strategygameapp.model.BoardCell;
-import com.strategygameapp.model.Match;
-import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.engine.ActionHistory;
+import com.strategygameapp.engine.ActionLog;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.engine.ResourceVector;
 import com.strategygameapp.model.enums.ActionType;
 import com.strategygameapp.model.enums.MatchStatus;
 import com.strategygameapp.model.enums.RegionType;
-import com.strategygameapp.repository.ActionRepository;
-import com.strategygameapp.repository.BoardCellRepository;
-import com.strategygameapp.repository.MatchPlayerRepository;
-import com.strategygameapp.repository.MatchRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class ActionService {
 
-    private final MatchRepository matchRepo;
-    private final MatchPlayerRepository playerRepo;
-    private final BoardCellRepository cellRepo;
-    private final ActionRepository actionRepo;
+    private final MatchEngine engine;
+    private final ActionLog actionLog;
+    private final ActionHistory actionHistory;
 
-    @Transactional
-    public ActionResultResponse place(Long matchId, ActionRequest req) {
-        String traceId = UUID.randomUUID().toString();
-        ActionOutcome outcome = placeInternal(matchId, req.getPlayerId(), req.getX(), req.getY());
+    @Value("${game.actions.max-batch-size:500}")
+    private int maxBatchSize;
 
-        if (outcome.success) {
-            saveAction(matchId, req.getPlayerId(), ActionType.PLACE_STARTING_HOUSE, outcome.message);
-        }
+    public ActionResultResponse place(Long matchId, ActionRequest req) {
+        String traceId = TraceIds.next();
+        ActionOutcome outcome = engine.execute(matchId, m -> logged(m, req.getPlayerId(), ActionType.PLACE_STARTING_HOUSE, req.getX(), req.getY(),
+                placeInternal(m, req.getPlayerId(), req.getX(), req.getY())))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
 
         return new ActionResultResponse(outcome.success, outcome.message, traceId);
     }
 
-    @Transactional
     public ActionResultResponse build(Long matchId, ActionRequest req) {
-        String traceId = UUID.randomUUID().toString();
-        ActionOutcome outcome = buildInternal(matchId, req.getPlayerId(), req.getX(), req.getY());
-
-        if (outcome.success) {
-            saveAction(matchId, req.getPlayerId(), ActionType.BUILD, outcome.message);
-        }
+        String traceId = TraceIds.next();
+        ActionOutcome outcome = engine.execute(matchId, m -> logged(m, req.getPlayerId(), ActionType.BUILD, req.getX(), req.getY(),
+                buildInternal(m, req.getPlayerId(), req.getX(), req.getY())))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
 
         return new ActionResultResponse(outcome.success, outcome.message, traceId);
     }
 
-    @Transactional
     public ActionResultResponse endTurn(Long matchId, EndTurnRequest req) {
-        String traceId = UUID.randomUUID().toString();
-        ActionOutcome outcome = endTurnInternal(matchId, req.getPlayerId());
-
-        if (outcome.success) {
-            saveAction(matchId, req.getPlayerId(), ActionType.END_TURN, outcome.message);
-        }
+        String traceId = TraceIds.next();
+        ActionOutcome outcome = engine.execute(matchId, m -> logged(m, req.getPlayerId(), ActionType.END_TURN, -1, -1,
+                endTurnInternal(m, req.getPlayerId())))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
 
         return new ActionResultResponse(outcome.success, outcome.message, traceId);
     }
 
-    @Transactional
     public ActionResultResponse attack(Long matchId, ActionRequest req) {
-        String traceId = UUID.randomUUID().toString();
-        ActionOutcome outcome = attackInternal(matchId, req.getPlayerId(), req.getX(), req.getY());
+        String traceId = TraceIds.next();
+        ActionOutcome outcome = engine.execute(matchId, m -> logged(m, req.getPlayerId(), ActionType.ATTACK, req.getX(), req.getY(),
+                attackInternal(m, req.getPlayerId(), req.getX(), req.getY())))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
 
-        if (outcome.success) {
-            saveAction(matchId, req.getPlayerId(), ActionType.ATTACK, outcome.message);
+        return new ActionResultResponse(outcome.success, outcome.message, traceId);
+    }
+
+    public List<ActionEventResponse> history(Long matchId) {
+        return actionHistory.read(matchId).stream()
+                .map(r -> new ActionEventResponse(r.seq(), r.type().name(), r.seat(),
+                        r.x() < 0 ? null : r.x(), r.y() < 0 ? null : r.y(), r.message(), r.payload(), r.ts()))
+                .toList();
+    }
+
+    public Optional<String> validateBatch(BatchActionRequest req) {
+        if (req == null || req.getActions() == null || req.getActions().isEmpty())
+            return Optional.of("actions must not be empty");
+        if (req.getActions().size() > maxBatchSize)
+            return Optional.of("at most " + maxBatchSize + " actions per batch");
+        for (BatchActionItem a : req.getActions()) {
+            if (a == null || a.getType() == null) return Optional.of("every action needs a type");
         }
+        return Optional.empty();
+    }
 
-        return new ActionResultResponse(outcome.success, outcome.message, traceId);
+    public BatchActionResponse batch(Long matchId, BatchActionRequest req) {
+        String traceId = TraceIds.next();
+        List<BatchActionItem> actions = req.getActions();
+
+        ActionOutcome[] outcomes = engine.execute(matchId, m -> {
+            // Actions only depend on the state they run on, so a batch that passes on a copy passes on the match.
+            if (req.isAtomic()) {
+                ActionOutcome[] trial = run(m.detachedCopy(), actions, true, false);
+                if (!allSucceeded(trial)) return rolledBack(trial);
+            }
+            return run(m, actions, req.isAtomic() || req.isStopOnFailure(), true);
+        }).orElse(null);
+
+        List<ActionResultResponse> results = new ArrayList<>(actions.size());
+        int applied = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            ActionOutcome o = outcomes == null ? fail("MATCH_NOT_FOUND")
+                    : outcomes[i] == null ? fail("NOT_ATTEMPTED")
+                    : outcomes[i];
+            if (o.success) applied++;
+            results.add(new ActionResultResponse(o.success, o.message, traceId));
+        }
+
+        return new BatchActionResponse(applied, results, traceId);
+    }
+
+    private ActionOutcome[] run(MatchState m, List<BatchActionItem> actions, boolean stopOnFailure, boolean log) {
+        ActionOutcome[] out = new ActionOutcome[actions.size()];
+        for (int i = 0; i < out.length; i++) {
+            BatchActionItem a = actions.get(i);
+            ActionOutcome o = apply(m, a.getType(), a.getPlayerId(), a.getX(), a.getY());
+            out[i] = log ? logged(m, a.getPlayerId(), a.getType(), a.getX(), a.getY(), o) : o;
+            if (!o.success && stopOnFailure) break;
+        }
+        return out;
     }
 
-    private ActionOutcome placeInternal(Long matchId, int seat, int x, int y) {
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) return fail("MATCH_NOT_FOUND");
+    private static boolean allSucceeded(ActionOutcome[] outcomes) {
+        for (ActionOutcome o : outcomes) {
+            if (o == null || !o.success) return false;
+        }
+        return true;
+    }
 
+    private ActionOutcome[] rolledBack(ActionOutcome[] trial) {
+        for (int i = 0; i < trial.length; i++) {
+            if (trial[i] != null && trial[i].success) trial[i] = fail("ROLLED_BACK");
+        }
+        return trial;
+    }
+
+    ActionOutcome apply(MatchState m, ActionType type, int seat, int x, int y) {
+        return switch (type) {
+            case PLACE_STARTING_HOUSE -> placeInternal(m, seat, x, y);
+            case BUILD -> buildInternal(m, seat, x, y);
+            case ATTACK -> attackInternal(m, seat, x, y);
+            case END_TURN -> endTurnInternal(m, seat);
+            default -> fail("UNSUPPORTED_ACTION");
+        };
+    }
+
+    private ActionOutcome placeInternal(MatchState match, int seat, int x, int y) {
         if (match.getStatus() != MatchStatus.PENDING) {
             return fail("CANNOT_PLACE_HOUSE_IN_NON_PENDING_MATCH");
         }
 
-        MatchPlayer player = playerRepo.findByMatchIdAndSeat(matchId, seat).orElse(null);
+        PlayerState player = match.player(seat);
         if (player == null) return fail("PLAYER_NOT_FOUND");
         if (!player.isAlive()) return fail("PLAYER_DEAD");
 
-        BoardCell cell = cellRepo.findByMatchIdAndXAndY(matchId, x, y).orElse(null);
-        if (cell == null) return fail("CELL_NOT_FOUND");
-        if (cell.getOwner() >= 0) {
+        int cell = match.index(x, y);
+        if (cell < 0) return fail("CELL_NOT_FOUND");
+        if (match.owner(cell) >= 0) {
             return fail("CELL_OCCUPIED");
         }
 
-        cell.setOwner(seat);
-        cell.setHits(0);
-        cellRepo.save(cell);
+        match.setCell(cell, seat, 0);
 
         return ok("HOUSE_PLACED");
     }
 
-    private ActionOutcome buildInternal(Long matchId, int seat, int x, int y) {
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) return fail("MATCH_NOT_FOUND");
-
+    private ActionOutcome buildInternal(MatchState match, int seat, int x, int y) {
         if (match.getStatus() != MatchStatus.RUNNING) {
             return fail("MATCH_NOT_RUNNING");
         }
@@ -112,39 +172,33 @@ public class ActionService {
             return fail("NOT_YOUR_TURN");
         }
 
-        MatchPlayer player = playerRepo.findByMatchIdAndSeat(matchId, seat).orElse(null);
+        PlayerState player = match.player(seat);
         if (player == null) return fail("PLAYER_NOT_FOUND");
         if (!player.isAlive()) return fail("PLAYER_DEAD");
 
-        BoardCell cell = cellRepo.findByMatchIdAndXAndY(matchId, x, y).orElse(null);
-        if (cell == null) return fail("CELL_NOT_FOUND");
-        if (cell.getOwner() >= 0) {
+        int cell = match.index(x, y);
+        if (cell < 0) return fail("CELL_NOT_FOUND");
+        if (match.owner(cell) >= 0) {
             return fail("CELL_OCCUPIED");
         }
 
-        RegionType r = cell.getRegion();
-        int[] cost = buildCostFor(r);
-        if (!hasResources(player, cost)) {
+        RegionType r = match.region(cell);
+        ResourceVector cost = match.rules().buildCost(r);
+        if (!player.has(cost)) {
             return fail("INSUFFICIENT_RESOURCES");
         }
 
-        pay(player, cost);
-        playerRepo.save(player);
+        player.pay(cost);
+        match.touch(player);
 
-        cell.setOwner(seat);
-        cell.setHits(0);
-        cellRepo.save(cell);
+        match.setCell(cell, seat, 0);
 
         advanceTurn(match);
-        matchRepo.save(match);
 
         return ok("BUILD_SUCCESS");
     }
 
-    private ActionOutcome endTurnInternal(Long matchId, int seat) {
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) return fail("MATCH_NOT_FOUND");
-
+    private ActionOutcome endTurnInternal(MatchState match, int seat) {
         if (match.getStatus() != MatchStatus.RUNNING) {
             return fail("MATCH_NOT_RUNNING");
         }
@@ -153,14 +207,10 @@ public class ActionService {
         }
 
         advanceTurn(match);
-        matchRepo.save(match);
         return ok("TURN_ENDED");
     }
 
-    private ActionOutcome attackInternal(Long matchId, int attackerSeat, int x, int y) {
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) return fail("MATCH_NOT_FOUND");
-
+    private ActionOutcome attackInternal(MatchState match, int attackerSeat, int x, int y) {
         if (match.getStatus() != MatchStatus.RUNNING) {
             return fail("MATCH_NOT_RUNNING");
         }
@@ -168,114 +218,59 @@ public class ActionService {
             return fail("NOT_YOUR_TURN");
         }
 
-        MatchPlayer attacker = playerRepo.findByMatchIdAndSeat(matchId, attackerSeat).orElse(null);
+        PlayerState attacker = match.player(attackerSeat);
         if (attacker == null) return fail("PLAYER_NOT_FOUND");
         if (!attacker.isAlive()) return fail("PLAYER_DEAD");
         if (attacker.getLightning() <= 0) return fail("NO_LIGHTNING");
 
-        BoardCell cell = cellRepo.findByMatchIdAndXAndY(matchId, x, y).orElse(null);
-        if (cell == null) return fail("CELL_NOT_FOUND");
+        int cell = match.index(x, y);
+        if (cell < 0) return fail("CELL_NOT_FOUND");
 
-        int ownerSeat = cell.getOwner();
+        int ownerSeat = match.owner(cell);
         if (ownerSeat < 0) return fail("NO_HOUSE_HERE");
         if (ownerSeat == attackerSeat) return fail("CANNOT_ATTACK_OWN_HOUSE");
 
         attacker.setLightning(attacker.getLightning() - 1);
-        playerRepo.save(attacker);
-
-        int hits = cell.getHits() + 1;
-        cell.setHits(hits);
-
-        if (hits >= 3) {
-            cell.setOwner(-1);
-            cell.setHits(0);
-            cellRepo.save(cell);
-
-            MatchPlayer victim = playerRepo.findByMatchIdAndSeat(matchId, ownerSeat).orElse(null);
-            if (victim != null) {
-                boolean anyLeft = cellRepo.findByMatchIdOrderByYAscXAsc(matchId).stream()
-                        .anyMatch(c -> c.getOwner() == ownerSeat);
-                if (!anyLeft) {
-                    victim.setAlive(false);
-                    playerRepo.save(victim);
-
-                    List<MatchPlayer> seats = playerRepo.findByMatchIdOrderBySeatAsc(matchId);
-                    long aliveCount = seats.stream().filter(MatchPlayer::isAlive).count();
-                    if (aliveCount == 1) {
-                        int winnerSeat = seats.stream()
-                                .filter(MatchPlayer::isAlive)
-                                .findFirst()
-                                .get()
-                                .getSeat();
-                        match.setWinnerSeat(winnerSeat);
-                        match.setStatus(MatchStatus.FINISHED);
-                    }
+        match.touch(attacker);
+
+        int hits = match.hits(cell) + 1;
+
+        if (hits >= match.rules().hitsToDestroy()) {
+            match.setCell(cell, -1, 0);
+
+            PlayerState victim = match.player(ownerSeat);
+            if (victim != null && match.houses(ownerSeat) == 0) {
+                match.eliminate(victim);
+                if (match.aliveCount() == 1) {
+                    match.setWinnerSeat(attackerSeat);
+                    match.setStatus(MatchStatus.FINISHED);
                 }
             }
         } else {
-            cellRepo.save(cell);
+            match.setCell(cell, ownerSeat, hits);
         }
 
         if (match.getStatus() == MatchStatus.RUNNING) {
             advanceTurn(match);
-            matchRepo.save(match);
         }
 
         return ok("ATTACK_SUCCESS");
     }
 
-    private void saveAction(Long matchId, int seat, ActionType type, String message) {
-        Match match = matchRepo.getReferenceById(matchId);
-        Action a = Action.builder()
-                .match(match)
-                .playerSeat(seat)
-                .type(type)
-                .message(message)
-                .build();
-        actionRepo.save(a);
-    }
-
-    private int[] buildCostFor(RegionType r) {
-        return switch (r) {
-            case SKY       -> new int[]{1, 1, 0, 2};
-            case FOREST    -> new int[]{2, 2, 0, 0};
-            case WATERS    -> new int[]{1, 1, 2, 1};
-            case VILLAGES  -> new int[]{2, 2, 1, 0};
-            case MOUNTAINS -> new int[]{0, 3, 0, 2};
-        };
-    }
-
-    private boolean hasResources(MatchPlayer p, int[] c) {
-        return p.getWood()  >= c[0]
-                && p.getStone() >= c[1]
-                && p.getGlass() >= c[2]
-                && p.getForce() >= c[3];
-    }
-
-    private void pay(MatchPlayer p, int[] c) {
-        p.setWood(p.getWood()   - c[0]);
-        p.setStone(p.getStone() - c[1]);
-        p.setGlass(p.getGlass() - c[2]);
-        p.setForce(p.getForce() - c[3]);
+    // Actions are deterministic given the state they run on, so the log keeps the command and not its effects.
+    private ActionOutcome logged(MatchState m, int seat, ActionType type, int x, int y, ActionOutcome outcome) {
+        if (outcome.success) {
+            actionLog.append(m, seat, type, type == ActionType.END_TURN ? -1 : x, type == ActionType.END_TURN ? -1 : y,
+                    outcome.message, null);
+        }
+        return outcome;
     }
 
-    private void advanceTurn(Match match) {
-        List<MatchPlayer> seats = playerRepo.findByMatchIdOrderBySeatAsc(match.getId());
-        if (seats.isEmpty()) return;
-        int idx = match.getCurrentTurn();
-
-        for (int i = 0; i < seats.size(); i++) {
-            idx = (idx + 1) % seats.size();
-            if (seats.get(idx).isAlive()) {
-                if(idx == 0)
-                    idx = seats.size();
-                match.setCurrentTurn(idx);
-                return;
-            }
-        }
+    private void advanceTurn(MatchState match) {
+        match.setCurrentTurn(match.nextSeat(match.getCurrentTurn()));
     }
 
-    private record ActionOutcome(boolean success, String message) {}
+    record ActionOutcome(boolean success, String message) {}
 
     private ActionOutcome ok(String msg)    { return new ActionOutcome(true, msg); }
     private ActionOutcome fail(String msg)  { return new ActionOutcome(false, msg); }
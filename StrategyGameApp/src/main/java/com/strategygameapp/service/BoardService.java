@@ -2,38 +2,110 @@ package com.strategygameapp.service;
 
 import com.strategygameapp.dto.board.BoardResponse;
 import com.strategygameapp.dto.board.CellResponse;
+import com.strategygameapp.dto.player.PlayerResponse;
+import com.strategygameapp.dto.stream.MatchSnapshotEvent;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.MatchStateStore;
+import com.strategygameapp.engine.PlayerState;
 import com.strategygameapp.model.BoardCell;
-import com.strategygameapp.model.Match;
 import com.strategygameapp.repository.BoardCellRepository;
-import com.strategygameapp.repository.MatchRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 @Service
 @RequiredArgsConstructor
 public class BoardService {
 
     private final BoardCellRepository cellRepo;
-    private final MatchRepository matchRepo;
+    private final MatchStateStore store;
+    private final MatchEngine engine;
+    private final BoardSnapshotCache cache;
 
-    public Optional<BoardResponse> getBoard(Long matchId) {
-        Optional<Match> mOpt = matchRepo.findById(matchId);
-        if (mOpt.isEmpty()) return Optional.empty();
+    public Optional<BoardSnapshot> getBoard(Long matchId) {
+        BoardSnapshot cached = cache.get(matchId);
+        OptionalLong version = engine.boardVersion(matchId);
 
-        Match m = mOpt.get();
-        List<BoardCell> cells = cellRepo.findByMatchIdOrderByYAscXAsc(matchId);
-        List<CellResponse> cellDtos = cells.stream()
-                .map(this::toCell)
-                .toList();
+        if (version.isPresent()) {
+            if (cached != null && cached.version() == version.getAsLong()) return Optional.of(cached);
+            Optional<BoardSnapshot> live = engine
+                    .query(matchId, m -> new Taken(m.getBoardVersion(), m.isTerminal(), m.boardJson()))
+                    .map(t -> snapshot(matchId, t));
+            if (live.isPresent()) return live;
+        }
 
-        return Optional.of(new BoardResponse(m.getWidth(), m.getHeight(), cellDtos));
+        // Only a resident match appends to its log, so while it is out of memory its board stays at the version a
+        // load would give it: the log position. Settled boards can't change at all.
+        if (cached != null && (cached.settled() || cached.version() == store.logPosition(matchId))) {
+            return Optional.of(cached);
+        }
+        return store.load(matchId)
+                .map(m -> new Taken(m.getBoardVersion(), m.isTerminal(), m.boardJson()))
+                .map(t -> snapshot(matchId, t));
     }
 
+    private BoardSnapshot snapshot(Long matchId, Taken taken) {
+        BoardSnapshot s = new BoardSnapshot(matchId, taken.version(), taken.settled(), taken.json());
+        cache.put(s);
+        return s;
+    }
+
+    private record Taken(long version, boolean settled, byte[] json) {}
+
     public Optional<CellResponse> getCell(Long matchId, int x, int y) {
-        return cellRepo.findByMatchIdAndXAndY(matchId, x, y).map(this::toCell);
+        Optional<Optional<CellResponse>> live = engine.query(matchId, m -> {
+            int idx = m.index(x, y);
+            return idx < 0 ? Optional.<CellResponse>empty() : Optional.of(toCell(m, idx));
+        });
+        if (live.isPresent()) return live.get();
+
+        // Packed boards have no per-cell rows, so a miss here falls through to the stored board.
+        return cellRepo.findByMatchIdAndXAndY(matchId, x, y).map(this::toCell)
+                .or(() -> store.load(matchId).flatMap(m -> {
+                    int idx = m.index(x, y);
+                    return idx < 0 ? Optional.empty() : Optional.of(toCell(m, idx));
+                }));
+    }
+
+    BoardResponse toBoard(MatchState m) {
+        List<CellResponse> cellDtos = new ArrayList<>(m.cellCount());
+        for (int i = 0; i < m.cellCount(); i++) {
+            cellDtos.add(toCell(m, i));
+        }
+        return new BoardResponse(m.getWidth(), m.getHeight(), cellDtos);
+    }
+
+    MatchSnapshotEvent toSnapshot(MatchState m, long seq) {
+        return new MatchSnapshotEvent(
+                seq,
+                m.getStatus().name(),
+                m.getCurrentTurn(),
+                m.getWinnerSeat(),
+                toBoard(m),
+                m.players().stream().map(this::toPlayer).toList()
+        );
+    }
+
+    PlayerResponse toPlayer(PlayerState p) {
+        return new PlayerResponse(
+                p.getId(), p.getSeat(), p.isBot(), p.isAlive(),
+                p.getLightning(), p.getWood(), p.getStone(), p.getGlass(), p.getForce()
+        );
+    }
+
+    private CellResponse toCell(MatchState m, int idx) {
+        return new CellResponse(
+                idx % m.getWidth(),
+                idx / m.getWidth(),
+                m.region(idx).name(),
+                m.owner(idx),
+                m.hits(idx)
+        );
     }
 
     private CellResponse toCell(BoardCell c) {
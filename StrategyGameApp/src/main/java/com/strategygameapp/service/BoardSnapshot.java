@@ -0,0 +1,20 @@
+package com.strategygameapp.service;
+
+/** A match's board serialized as JSON, tagged with the board version it was taken at. */
+public record BoardSnapshot(long matchId, long version, boolean settled, byte[] json) {
+
+    public String etag() {
+        return "\"" + matchId + "-" + version + "\"";
+    }
+
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        String etag = etag();
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+}
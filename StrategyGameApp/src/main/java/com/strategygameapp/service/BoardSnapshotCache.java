@@ -0,0 +1,48 @@
+package com.strategygameapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Serialized boards kept by total byte size. When over budget, settled (finished or cancelled) boards are
+ * dropped first, least recently used first, then live ones.
+ */
+@Component
+class BoardSnapshotCache {
+
+    @Value("${game.board.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<Long, BoardSnapshot> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    synchronized BoardSnapshot get(long matchId) {
+        return entries.get(matchId);
+    }
+
+    synchronized void put(BoardSnapshot snapshot) {
+        BoardSnapshot old = entries.get(snapshot.matchId());
+        if (old != null && old.version() > snapshot.version()) return;
+
+        if (old != null) bytes -= old.json().length;
+        entries.put(snapshot.matchId(), snapshot);
+        bytes += snapshot.json().length;
+
+        if (bytes > maxBytes) evict(true);
+        if (bytes > maxBytes) evict(false);
+    }
+
+    private void evict(boolean settledOnly) {
+        Iterator<Map.Entry<Long, BoardSnapshot>> it = entries.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            BoardSnapshot s = it.next().getValue();
+            if (settledOnly && !s.settled()) continue;
+            it.remove();
+            bytes -= s.json().length;
+        }
+    }
+}
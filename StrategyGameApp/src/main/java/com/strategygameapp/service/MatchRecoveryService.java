@@ -0,0 +1,104 @@
+package com.strategygameapp.service;
+
+import com.strategygameapp.engine.ActionHistory;
+import com.strategygameapp.engine.ActionRecord;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.MatchStateStore;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.repository.MatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings live matches back into the engine at startup from their latest snapshot plus the log entries written
+ * after it, a page of matches at a time. Matches without a snapshot are replayed from their whole log, since
+ * their rows may trail it. Seat rows are rewritten from every recovered state on the next flush, because a
+ * bulk gain can commit before its log entries are written. Runs before the tick scheduler starts ticking the
+ * same matches.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchRecoveryService {
+
+    private final MatchRepository matchRepo;
+    private final MatchStateStore store;
+    private final ActionHistory history;
+    private final ReplayService replay;
+    private final MatchEngine engine;
+
+    @Value("${game.engine.recovery.batch-size:500}")
+    private int batchSize;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverLiveMatches() {
+        long started = System.nanoTime();
+        List<Match> live = new ArrayList<>(matchRepo.findByStatus(MatchStatus.RUNNING));
+        live.addAll(matchRepo.findByStatus(MatchStatus.PENDING));
+
+        int recovered = 0;
+        int replayed = 0;
+        for (int from = 0; from < live.size(); from += batchSize) {
+            List<Match> page = live.subList(from, Math.min(live.size(), from + batchSize));
+            Map<Long, MatchState> states = store.loadSnapshots(page);
+            for (Match m : page) {
+                if (states.containsKey(m.getId())) continue;
+                MatchState rebuilt = rebuild(m.getId());
+                if (rebuilt == null) continue;
+                rebuilt.touchPlayers();
+                if (engine.adopt(rebuilt)) {
+                    recovered++;
+                    replayed += (int) rebuilt.getLogSeq();
+                }
+            }
+            if (states.isEmpty()) continue;
+
+            Map<Long, Long> positions = new HashMap<>();
+            states.forEach((id, s) -> positions.put(id, s.getLogSeq()));
+            Map<Long, List<ActionRecord>> tails = history.tails(positions);
+
+            for (MatchState s : states.values()) {
+                List<ActionRecord> tail = tails.getOrDefault(s.getMatchId(), List.of());
+                try {
+                    replay.replayTail(s, tail);
+                } catch (RuntimeException e) {
+                    log.warn("Match {} not recovered from its snapshot: {}", s.getMatchId(), e.getMessage());
+                    continue;
+                }
+                s.touchPlayers();
+                if (engine.adopt(s)) {
+                    recovered++;
+                    replayed += tail.size();
+                }
+            }
+        }
+
+        log.info("Recovered {} of {} live matches from snapshots and logs, replaying {} log entries, in {} ms",
+                recovered, live.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private MatchState rebuild(Long matchId) {
+        try {
+            MatchState s = replay.rebuild(matchId).orElse(null);
+            if (s == null) log.warn("Match {} has no log from its creation, leaving it to the row-based load", matchId);
+            return s;
+        } catch (RuntimeException e) {
+            log.warn("Match {} not recovered from its log: {}", matchId, e.getMessage());
+            return null;
+        }
+    }
+}
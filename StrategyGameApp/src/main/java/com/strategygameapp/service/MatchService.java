@@ -2,14 +2,23 @@ package com.strategygameapp.service;
 
 
 import com.strategygameapp.dto.match.CreateMatchRequest;
-import com.strategygameapp.model.BoardCell;
+import com.strategygameapp.engine.ActionLog;
+import com.strategygameapp.engine.LogPayload;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchRandom;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.ResourceVector;
+import com.strategygameapp.engine.map.MapGenerators;
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.engine.rules.Rulesets;
+import com.strategygameapp.engine.rules.RulesCodec;
 import com.strategygameapp.model.Match;
 import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.model.enums.ActionType;
 import com.strategygameapp.model.enums.MatchStatus;
-import com.strategygameapp.model.enums.RegionType;
-import com.strategygameapp.repository.BoardCellRepository;
-import com.strategygameapp.repository.MatchPlayerRepository;
+import com.strategygameapp.model.enums.ResourceType;
 import com.strategygameapp.repository.MatchRepository;
+import com.strategygameapp.scheduler.TickScheduler;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -20,45 +29,66 @@ import java.util.*;
 @RequiredArgsConstructor
 public class MatchService {
 
+    static final String MATCH_CREATED = "MATCH_CREATED";
+    static final String MATCH_STARTED = "MATCH_STARTED";
+    static final String MATCH_STOPPED = "MATCH_STOPPED";
+
     private final MatchRepository matchRepo;
-    private final MatchPlayerRepository playerRepo;
-    private final BoardCellRepository cellRepo;
+    private final MatchEngine engine;
+    private final TickScheduler ticks;
+    private final ActionLog actionLog;
+    private final MatchRandom random;
+    private final MapGenerators mapGenerators;
+    private final Rulesets rulesets;
 
     public Optional<Match> get(Long id) {
-        return matchRepo.findById(id);
+        return engine.query(id, MatchState::toMatch).or(() -> matchRepo.findById(id));
     }
 
     public List<Match> list(String status) {
-        if (status == null || status.isBlank()) return matchRepo.findAll();
-        MatchStatus st = MatchStatus.valueOf(status.toUpperCase());
-        return matchRepo.findByStatus(st);
+        MatchStatus st = (status == null || status.isBlank()) ? null : MatchStatus.valueOf(status.toUpperCase());
+        List<Match> stored = st == null ? matchRepo.findAll() : matchRepo.findByStatus(st);
+        return stored.stream()
+                .map(m -> engine.query(m.getId(), MatchState::toMatch).orElse(m))
+                .filter(m -> st == null || m.getStatus() == st)
+                .toList();
     }
 
     public Optional<Match> start(Long id) {
-        Optional<Match> opt = matchRepo.findById(id);
-        if (opt.isEmpty()) return Optional.empty();
-
-        Match m = opt.get();
-        if (m.getStatus() == MatchStatus.PENDING) {
-            m.setStatus(MatchStatus.RUNNING);
-            m.setCurrentTurn(1);
-            m.setStartedAt(OffsetDateTime.now());
-            matchRepo.save(m);
-        }
-        return Optional.of(m);
+        Optional<Match> started = engine.execute(id, m -> {
+            if (startInternal(m, OffsetDateTime.now())) {
+                actionLog.append(m, 0, ActionType.SYSTEM, -1, -1, MATCH_STARTED, null);
+            }
+            return m.toMatch();
+        });
+        started.filter(m -> m.getStatus() == MatchStatus.RUNNING).ifPresent(m -> ticks.track(id));
+        return started;
     }
 
     public Optional<Match> stop(Long id) {
-        Optional<Match> opt = matchRepo.findById(id);
-        if (opt.isEmpty()) return Optional.empty();
-
-        Match m = opt.get();
-        if (m.getStatus() == MatchStatus.RUNNING || m.getStatus() == MatchStatus.PENDING) {
-            m.setStatus(MatchStatus.FINISHED);
-            m.setFinishedAt(OffsetDateTime.now());
-            matchRepo.save(m);
-        }
-        return Optional.of(m);
+        Optional<Match> stopped = engine.execute(id, m -> {
+            if (stopInternal(m, OffsetDateTime.now())) {
+                actionLog.append(m, 0, ActionType.SYSTEM, -1, -1, MATCH_STOPPED, null);
+            }
+            return m.toMatch();
+        });
+        stopped.ifPresent(m -> ticks.untrack(id));
+        return stopped;
+    }
+
+    boolean startInternal(MatchState m, OffsetDateTime at) {
+        if (m.getStatus() != MatchStatus.PENDING) return false;
+        m.setStatus(MatchStatus.RUNNING);
+        m.setCurrentTurn(1);
+        m.setStartedAt(at);
+        return true;
+    }
+
+    boolean stopInternal(MatchState m, OffsetDateTime at) {
+        if (m.getStatus() != MatchStatus.RUNNING && m.getStatus() != MatchStatus.PENDING) return false;
+        m.setStatus(MatchStatus.FINISHED);
+        m.setFinishedAt(at);
+        return true;
     }
 
     public Optional<String> validateCreate(CreateMatchRequest req) {
@@ -67,70 +97,52 @@ public class MatchService {
         if (req.getWidth() < 1 || req.getHeight() < 1) return Optional.of("width/height must be >= 1");
         if (req.getBots() == null || req.getBots().size() != req.getPlayers())
             return Optional.of("bots list size must equal players");
+        if (mapGenerators.get(req.getMapGenerator()).isEmpty())
+            return Optional.of("unknown mapGenerator " + req.getMapGenerator());
+        if (rulesets.get(req.getRuleset()).isEmpty())
+            return Optional.of("unknown ruleset " + req.getRuleset());
         return Optional.empty();
     }
 
     public Match create(CreateMatchRequest req) {
+        Rules rules = rulesets.get(req.getRuleset()).orElseThrow();
+        ResourceVector start = rules.start();
         Match m = Match.builder()
                 .status(MatchStatus.PENDING)
                 .players(req.getPlayers())
                 .width(req.getWidth())
                 .height(req.getHeight())
+                .seed(req.getSeed() != null ? req.getSeed() : random.newSeed())
+                .mapGenerator(req.getMapGenerator() != null ? req.getMapGenerator() : mapGenerators.defaultName())
+                .ruleset(rules.name())
+                .rulesData(RulesCodec.encode(rules))
                 .createdAt(OffsetDateTime.now())
                 .build();
-        matchRepo.save(m);
-
+        List<MatchPlayer> players = new ArrayList<>(req.getPlayers());
         for (int seat = 1; seat <= req.getPlayers(); seat++) {
             boolean bot = req.getBots().get(seat - 1);
-            MatchPlayer p = MatchPlayer.builder()
-                    .match(m)
+            players.add(MatchPlayer.builder()
                     .seat(seat)
                     .bot(bot)
                     .alive(true)
-                    .lightning(2)
-                    .wood(2)
-                    .stone(2)
-                    .glass(2)
-                    .force(2)
-                    .build();
-            playerRepo.save(p);
+                    .lightning(rules.startLightning())
+                    .wood(start.get(ResourceType.WOOD))
+                    .stone(start.get(ResourceType.STONE))
+                    .glass(start.get(ResourceType.GLASS))
+                    .force(start.get(ResourceType.FORCE))
+                    .build());
         }
 
-        RegionType[][] regions = generateRegions(req.getWidth(), req.getHeight());
-        for (int y = 0; y < req.getHeight(); y++) {
-            for (int x = 0; x < req.getWidth(); x++) {
-                BoardCell c = BoardCell.builder()
-                        .match(m)
-                        .x(x).y(y)
-                        .region(regions[y][x])
-                        .owner(-1)
-                        .hits(0)
-                        .build();
-                cellRepo.save(c);
-            }
-        }
+        byte[] regions = new byte[req.getWidth() * req.getHeight()];
+        mapGenerators.get(m.getMapGenerator()).orElseThrow()
+                .generate(req.getWidth(), req.getHeight(), m.getSeed(), regions);
 
+        engine.create(m, players, regions);
+        // Starting resources open the log, so a replay needs nothing from match_players but the seats.
+        engine.execute(m.getId(), s -> {
+            actionLog.append(s, 0, ActionType.SYSTEM, -1, -1, MATCH_CREATED, LogPayload.holdings(s.players()));
+            return true;
+        });
         return m;
     }
-
-    private static RegionType[][] generateRegions(int w, int h) {
-        RegionType[] vals = RegionType.values();
-        int total = w * h;
-        List<RegionType> all = new ArrayList<>(total);
-
-        for (int i = 0; i < total; i++) {
-            all.add(vals[i % vals.length]);
-        }
-
-        Collections.shuffle(all, new Random(42L));
-        RegionType[][] map = new RegionType[h][w];
-        int idx = 0;
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                map[y][x] = all.get(idx++);
-            }
-        }
-
-        return map;
-    }
 }
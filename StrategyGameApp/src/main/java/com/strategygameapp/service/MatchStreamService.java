@@ -0,0 +1,234 @@
+package com.strategygameapp.service;
+
+import com.strategygameapp.dto.board.CellResponse;
+import com.strategygameapp.dto.player.PlayerResponse;
+import com.strategygameapp.dto.stream.MatchDeltaEvent;
+import com.strategygameapp.dto.stream.MatchEndedEvent;
+import com.strategygameapp.dto.stream.MatchSnapshotEvent;
+import com.strategygameapp.engine.MatchDelta;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchListener;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.MatchStateStore;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.repository.MatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service
+@RequiredArgsConstructor
+public class MatchStreamService {
+
+    private static final RegionType[] REGIONS = RegionType.values();
+
+    private final MatchEngine engine;
+    private final BoardService boardService;
+    private final MatchRepository matchRepo;
+    private final MatchStateStore store;
+
+    @Value("${game.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${game.stream.max-pending:1024}")
+    private int maxPending;
+
+    @Value("${game.stream.senders:4}")
+    private int senderCount;
+
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderCount, r -> {
+            Thread t = new Thread(r, "stream-sender-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+    }
+
+    public Optional<SseEmitter> open(Long matchId, Long lastSeq) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        if (!engine.isResident(matchId)) {
+            Match m = matchRepo.findById(matchId).orElse(null);
+            if (m == null) return Optional.empty();
+            if (isEnded(m.getStatus())) return openEnded(m, lastSeq == null ? -1 : lastSeq, emitter);
+        }
+
+        Subscriber sub = new Subscriber(matchId, emitter);
+        emitter.onCompletion(sub::cancel);
+        emitter.onTimeout(sub::cancel);
+        emitter.onError(e -> sub.cancel());
+
+        if (!engine.subscribe(matchId, lastSeq == null ? -1 : lastSeq, sub)) return Optional.empty();
+        return Optional.of(emitter);
+    }
+
+    /**
+     * An ended match can't change again, so it is streamed from storage without being loaded into the engine:
+     * one snapshot, numbered with the match's last log position, then an ended event, and the stream completes.
+     * A client reconnecting with that number already has the final state and only gets the ended event.
+     */
+    private Optional<SseEmitter> openEnded(Match m, long lastSeq, SseEmitter emitter) {
+        long seq = store.logPosition(m.getId());
+        try {
+            if (lastSeq != seq) {
+                MatchState state = store.load(m.getId()).orElse(null);
+                if (state == null) return Optional.empty();
+                emitter.send(event("snapshot", seq, boardService.toSnapshot(state, seq)));
+            }
+            emitter.send(event("ended", seq, new MatchEndedEvent(seq, m.getStatus().name(), m.getWinnerSeat())));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return Optional.of(emitter);
+    }
+
+    private static boolean isEnded(MatchStatus status) {
+        return status == MatchStatus.FINISHED || status == MatchStatus.CANCELLED;
+    }
+
+    private MatchDeltaEvent toDelta(MatchDelta d) {
+        List<CellResponse> cells = new ArrayList<>(d.cells().length);
+        for (int i = 0; i < d.cells().length; i++) {
+            int idx = d.cells()[i];
+            cells.add(new CellResponse(
+                    idx % d.width(),
+                    idx / d.width(),
+                    REGIONS[d.regions()[i]].name(),
+                    d.owners()[i],
+                    d.hits()[i]
+            ));
+        }
+        List<PlayerResponse> players = new ArrayList<>(d.players().length);
+        for (PlayerState p : d.players()) players.add(boardService.toPlayer(p));
+
+        return new MatchDeltaEvent(
+                d.seq(), cells, players, d.status().name(), d.currentTurn(), d.winnerSeat()
+        );
+    }
+
+    private static SseEmitter.SseEventBuilder event(String name, long seq, Object data) {
+        return SseEmitter.event().id(Long.toString(seq)).name(name).data(data);
+    }
+
+    /**
+     * One connected client. Engine callbacks only enqueue; events are sent in order on the sender pool so a
+     * slow client never holds up its match. A client that falls too far behind is disconnected and can
+     * resume with its last event id. Once the match ends the client gets an ended event and the stream completes.
+     */
+    private final class Subscriber implements MatchListener, Runnable {
+        private final Long matchId;
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+        // Set on the actor once the ended event is queued; the sender completes the stream after sending it.
+        private volatile boolean ending;
+
+        private Subscriber(Long matchId, SseEmitter emitter) {
+            this.matchId = matchId;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void onSnapshot(MatchState state, long seq) {
+            MatchSnapshotEvent snapshot = boardService.toSnapshot(state, seq);
+            enqueue(() -> event("snapshot", seq, snapshot));
+            if (state.isTerminal()) end(seq, state.getStatus(), state.getWinnerSeat());
+        }
+
+        @Override
+        public boolean onDelta(MatchDelta delta) {
+            if (closed || ending) return false;
+            if (pending.get() >= maxPending) {
+                closed = true;
+                schedule();
+                return false;
+            }
+            enqueue(() -> event("delta", delta.seq(), toDelta(delta)));
+            if (!isEnded(delta.status())) return true;
+            end(delta.seq(), delta.status(), delta.winnerSeat());
+            return false;
+        }
+
+        @Override
+        public void onClose() {
+            if (ending) return;
+            closed = true;
+            schedule();
+        }
+
+        private void end(long seq, MatchStatus status, Integer winner) {
+            MatchEndedEvent ended = new MatchEndedEvent(seq, status.name(), winner);
+            ending = true;
+            enqueue(() -> event("ended", seq, ended));
+        }
+
+        void cancel() {
+            if (closed) return;
+            closed = true;
+            engine.unsubscribe(matchId, this);
+        }
+
+        private void enqueue(Supplier<SseEmitter.SseEventBuilder> event) {
+            outbox.add(event);
+            pending.incrementAndGet();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Supplier<SseEmitter.SseEventBuilder> next;
+                while (!closed && (next = outbox.poll()) != null) {
+                    pending.decrementAndGet();
+                    emitter.send(next.get());
+                }
+                if (closed || (ending && outbox.isEmpty())) {
+                    outbox.clear();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                cancel();
+            } finally {
+                scheduled.set(false);
+                if (!outbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+                    senders.execute(this);
+                }
+            }
+        }
+    }
+}
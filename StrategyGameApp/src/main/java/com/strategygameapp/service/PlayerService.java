@@ -1,12 +1,15 @@
 package com.strategygameapp.service;
 
 
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.engine.PlayersJson;
 import com.strategygameapp.model.MatchPlayer;
 import com.strategygameapp.repository.MatchPlayerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -14,12 +17,15 @@ import java.util.Optional;
 public class PlayerService {
 
     private final MatchPlayerRepository playerRepo;
+    private final MatchEngine engine;
 
-    public List<MatchPlayer> list(Long matchId) {
-        return playerRepo.findByMatchIdOrderBySeatAsc(matchId);
+    public byte[] listJson(Long matchId) {
+        return engine.query(matchId, MatchState::playersJson)
+                .orElseGet(() -> PlayersJson.of(playerRepo.findByMatchIdOrderBySeatAsc(matchId)));
     }
 
     public Optional<MatchPlayer> get(Long matchId, int seat) {
-        return playerRepo.findByMatchIdAndSeat(matchId, seat);
+        return engine.query(matchId, m -> Optional.ofNullable(m.player(seat)).map(PlayerState::toEntity))
+                .orElseGet(() -> playerRepo.findByMatchIdAndSeat(matchId, seat));
     }
 }
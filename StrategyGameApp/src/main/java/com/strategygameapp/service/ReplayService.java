@@ -0,0 +1,95 @@
+package com.strategygameapp.service;
+
+import com.strategygameapp.dto.stream.MatchSnapshotEvent;
+import com.strategygameapp.engine.ActionHistory;
+import com.strategygameapp.engine.ActionRecord;
+import com.strategygameapp.engine.LogPayload;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.MatchStateStore;
+import com.strategygameapp.service.ActionService.ActionOutcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Rebuilds a match from its command log. Player actions are re-run through the same rules that applied them;
+ * start/stop re-run the same transitions at their logged time; everything else (starting resources, gains,
+ * trades) is applied from the effects the log recorded. A logged action that no longer applies cleanly means
+ * the log and the rules disagree, and the replay stops with an error instead of producing a different match.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReplayService {
+
+    private final MatchStateStore store;
+    private final ActionHistory history;
+    private final ActionService actions;
+    private final MatchService matches;
+    private final BoardService boards;
+
+    /** The match as it stood after the entry numbered uptoSeq (the whole log if null); empty if it can't be replayed. */
+    public Optional<MatchSnapshotEvent> replay(Long matchId, Long uptoSeq) {
+        List<ActionRecord> log = history.read(matchId);
+        if (log.isEmpty() || !isCreation(log.get(0))) return Optional.empty();
+
+        return store.loadBlank(matchId).map(m -> {
+            for (ActionRecord r : log) {
+                if (uptoSeq != null && r.seq() > uptoSeq) break;
+                step(m, r);
+            }
+            return boards.toSnapshot(m, m.getLogSeq());
+        });
+    }
+
+    /**
+     * The match rebuilt from its whole log, with its trade offers as stored, to be made resident; empty if the log
+     * doesn't go back to the match's creation.
+     */
+    public Optional<MatchState> rebuild(Long matchId) {
+        List<ActionRecord> log = history.read(matchId);
+        if (log.isEmpty() || !isCreation(log.get(0))) return Optional.empty();
+
+        return store.loadForRebuild(matchId).map(m -> {
+            replayTail(m, log);
+            return m;
+        });
+    }
+
+    /** Applies log entries that follow directly on from the state's current log position. */
+    public void replayTail(MatchState m, List<ActionRecord> tail) {
+        for (ActionRecord r : tail) step(m, r);
+    }
+
+    private void step(MatchState m, ActionRecord r) {
+        if (r.seq() != m.getLogSeq() + 1) {
+            throw new IllegalStateException("Command log of match " + r.matchId() + " skips from "
+                    + m.getLogSeq() + " to " + r.seq());
+        }
+        apply(m, r);
+        m.replayed(r.seq());
+    }
+
+    private void apply(MatchState m, ActionRecord r) {
+        switch (r.type()) {
+            case PLACE_STARTING_HOUSE, BUILD, ATTACK, END_TURN -> {
+                ActionOutcome out = actions.apply(m, r.type(), r.seat(), r.x(), r.y());
+                if (!out.success() || !out.message().equals(r.message())) {
+                    throw new IllegalStateException("Replay of match " + r.matchId() + " diverged at " + r.seq()
+                            + ": logged " + r.message() + ", got " + out.message());
+                }
+            }
+            case SYSTEM -> {
+                if (MatchService.MATCH_STARTED.equals(r.message())) matches.startInternal(m, r.ts());
+                else if (MatchService.MATCH_STOPPED.equals(r.message())) matches.stopInternal(m, r.ts());
+                else LogPayload.apply(m, r.payload());
+            }
+            default -> LogPayload.apply(m, r.payload());
+        }
+    }
+
+    private static boolean isCreation(ActionRecord r) {
+        return r.seq() == 1 && MatchService.MATCH_CREATED.equals(r.message());
+    }
+}
@@ -1,154 +1,226 @@
 package com.strategygameapp.service;
 
 import com.strategygameapp.dto.action.ActionResultResponse;
-import com.strategygameapp.model.BoardCell;
-import com.strategygameapp.model.Match;
-import com.strategygameapp.model.MatchPlayer;
+import com.strategygameapp.engine.ActionLog;
+import com.strategygameapp.engine.BoardStorage;
+import com.strategygameapp.engine.LogPayload;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.enums.ActionType;
+import com.strategygameapp.model.enums.MatchStatus;
 import com.strategygameapp.model.enums.RegionType;
 import com.strategygameapp.model.enums.ResourceType;
-import com.strategygameapp.repository.BoardCellRepository;
-import com.strategygameapp.repository.MatchPlayerRepository;
-import com.strategygameapp.repository.MatchRepository;
+import com.strategygameapp.repository.ResourceTickRepository;
+import com.strategygameapp.repository.ResourceTickRepository.SeatDelta;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
 
 @Service
 @RequiredArgsConstructor
 public class ResourceService{
 
-    private final MatchRepository matchRepo;
-    private final MatchPlayerRepository playerRepo;
-    private final BoardCellRepository cellRepo;
+    private static final RegionType[] REGIONS = RegionType.values();
 
-    @Transactional
-    public ActionResultResponse resourceGain(Long matchId) {
-        String traceId = UUID.randomUUID().toString();
+    private final MatchEngine engine;
+    private final ResourceTickRepository tickRepo;
+    private final ActionLog actionLog;
+
+    @Value("${game.resources.gain-mode:ENGINE}")
+    private GainMode gainMode;
+
+    @Value("${game.board.storage:ROWS}")
+    private BoardStorage boardStorage;
 
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) {
-            return new ActionResultResponse(false, "MATCH_NOT_FOUND", traceId);
+    public enum GainMode { ENGINE, SQL }
+
+    // The bulk statement aggregates board_cells rows, which packed boards don't have.
+    @PostConstruct
+    void checkGainMode() {
+        if (gainMode == GainMode.SQL && boardStorage == BoardStorage.PACKED) {
+            throw new IllegalStateException("game.resources.gain-mode=SQL requires game.board.storage=ROWS");
         }
+    }
+
+    public boolean isBulkMode() {
+        return gainMode == GainMode.SQL;
+    }
+
+    public ActionResultResponse resourceGain(Long matchId) {
+        String traceId = TraceIds.next();
 
-        ActionOutcome out = resourceGainInternal(matchId);
+        ActionOutcome out = engine.execute(matchId, m -> logged(m, this::resourceGainInternal))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
 
         return new ActionResultResponse(out.success, out.message, traceId);
     }
 
-    @Transactional
     public ActionResultResponse lightningRecharge(Long matchId) {
-        String traceId = UUID.randomUUID().toString();
+        String traceId = TraceIds.next();
 
-        Match match = matchRepo.findById(matchId).orElse(null);
-        if (match == null) {
-            return new ActionResultResponse(false, "MATCH_NOT_FOUND", traceId);
-        }
-
-        ActionOutcome out = lightningRechargeInternal(matchId);
+        ActionOutcome out = engine.execute(matchId, m -> logged(m, this::lightningRechargeInternal))
+                .orElseGet(() -> fail("MATCH_NOT_FOUND"));
         return new ActionResultResponse(out.success, out.message, traceId);
     }
 
-    private ActionOutcome resourceGainInternal(Long matchId) {
-        List<BoardCell> cells = cellRepo.findByMatchIdOrderByYAscXAsc(matchId);
-        if (cells.isEmpty()) {
-            return ok("NO_CELLS");
-        }
-
-        List<MatchPlayer> players = playerRepo.findByMatchIdOrderBySeatAsc(matchId);
-        if (players.isEmpty()) {
-            return fail("NO_PLAYERS");
-        }
-        Map<Integer, MatchPlayer> bySeat = new HashMap<>();
-        for (MatchPlayer p : players) {
-            bySeat.put(p.getSeat(), p);
-        }
+    public CompletableFuture<Boolean> tick(Long matchId, boolean lightningRecharge) {
+        return engine.submit(matchId, m -> {
+            if (m.getStatus() != MatchStatus.RUNNING) return false;
+            logged(m, this::resourceGainInternal);
+            if (lightningRecharge) logged(m, this::lightningRechargeInternal);
+            return true;
+        }).thenApply(running -> running.orElse(false));
+    }
 
-        Map<Integer, EnumMap<RegionType, Integer>> regionCounts = new HashMap<>();
-        for (BoardCell c : cells) {
-            int ownerSeat = c.getOwner();
-            if (ownerSeat < 0) continue;
+    /**
+     * Applies one resource tick (and optionally a lightning recharge) to every RUNNING match resident in
+     * the engine. Gains are computed by set-based SQL over board_cells/match_players, which trail memory
+     * by up to one write-behind flush, so each match's deltas are only kept if they were computed from the
+     * board it has in memory; otherwise its gain is computed again in memory, as in ENGINE mode. Each
+     * seat's delta is logged when it is mirrored, so replay applies what the statement drew instead of
+     * drawing again. Recharges depend on every alive seat being empty and always run in memory.
+     */
+    public int resourceGainAll(boolean lightningRecharge) {
+        return engine.applyBulk(tickRepo::applyResourceGain, SeatDelta::matchId,
+                (m, deltas) -> mirror(m, deltas, lightningRecharge)).size();
+    }
 
-            RegionType rt = c.getRegion();
-            regionCounts
-                    .computeIfAbsent(ownerSeat, s -> new EnumMap<>(RegionType.class))
-                    .merge(rt, 1, Integer::sum);
+    private void mirror(MatchState match, List<SeatDelta> deltas, boolean lightningRecharge) {
+        if (match.getStatus() != MatchStatus.RUNNING) {
+            // The statement read the match as still running; its rows are rewritten from memory on the next flush.
+            touchAll(match, deltas);
+            return;
         }
-
-        if (regionCounts.isEmpty()) {
-            return ok("NO_HOUSES");
+        if (computedFromMemory(match, deltas)) {
+            for (SeatDelta d : deltas) {
+                PlayerState p = match.player(d.seat());
+                p.add(ResourceType.WOOD, d.wood());
+                p.add(ResourceType.STONE, d.stone());
+                p.add(ResourceType.GLASS, d.glass());
+                p.add(ResourceType.FORCE, d.force());
+                match.touch(p);
+                actionLog.append(match, 0, ActionType.RESOURCE_GAIN, -1, -1, "RESOURCE_GAIN_BULK",
+                        LogPayload.of(d.seat(), 0, d.wood(), d.stone(), d.glass(), d.force()));
+            }
+        } else {
+            touchAll(match, deltas);
+            logged(match, this::resourceGainInternal);
         }
+        if (lightningRecharge) logged(match, this::lightningRechargeInternal);
+    }
 
-        Map<Integer, EnumMap<ResourceType, Integer>> gains = new HashMap<>();
-
-        for (BoardCell c : cells) {
-            int ownerSeat = c.getOwner();
-            if (ownerSeat < 0) continue;
-
-            RegionType rt = c.getRegion();
-
-            ResourceType baseRes = switch (rt) {
-                case SKY       -> ResourceType.FORCE;
-                case FOREST    -> ResourceType.WOOD;
-                case WATERS    -> ResourceType.GLASS;
-                case VILLAGES  -> null;
-                case MOUNTAINS -> ResourceType.STONE;
-            };
-
-            ResourceType resToGive;
-            if (rt == RegionType.VILLAGES) {
-                resToGive = Math.random() < 0.5 ? ResourceType.WOOD : ResourceType.STONE;
-            } else {
-                resToGive = baseRes;
+    // True when every seat paid is alive and owns exactly the houses it was paid for, and no other alive seat
+    // owns any: the persisted board the statement read was the one in memory.
+    private static boolean computedFromMemory(MatchState match, List<SeatDelta> deltas) {
+        BitSet paid = new BitSet();
+        for (SeatDelta d : deltas) {
+            PlayerState p = match.player(d.seat());
+            if (p == null || !p.isAlive()) return false;
+            for (RegionType rt : REGIONS) {
+                if (match.houses(d.seat(), rt) != d.houses()[rt.ordinal()]) return false;
+            }
+            paid.set(d.seat());
+        }
+        for (PlayerState p : match.players()) {
+            if (p == null || !p.isAlive() || paid.get(p.getSeat())) continue;
+            for (RegionType rt : REGIONS) {
+                if (match.houses(p.getSeat(), rt) > 0) return false;
             }
+        }
+        return true;
+    }
 
-            EnumMap<RegionType, Integer> seatCounts =
-                    regionCounts.getOrDefault(ownerSeat, new EnumMap<>(RegionType.class));
-            int cnt = seatCounts.getOrDefault(rt, 0);
-            int bonus = (cnt >= 2) ? 1 : 0;
-            int total = 1 + bonus;
+    private static void touchAll(MatchState match, List<SeatDelta> deltas) {
+        for (SeatDelta d : deltas) {
+            PlayerState p = match.player(d.seat());
+            if (p != null) match.touch(p);
+        }
+    }
 
-            gains
-                    .computeIfAbsent(ownerSeat, s -> new EnumMap<>(ResourceType.class))
-                    .merge(resToGive, total, Integer::sum);
+    // Gains depend on coin flips, so the log records what each seat actually received rather than the command.
+    private ActionOutcome logged(MatchState match, Function<MatchState, ActionOutcome> step) {
+        int[] before = LogPayload.capture(match.players());
+        ActionOutcome out = step.apply(match);
+        String payload = LogPayload.diff(before, LogPayload.capture(match.players()));
+        if (payload != null) {
+            actionLog.append(match, 0, ActionType.RESOURCE_GAIN, -1, -1, out.message, payload);
         }
+        return out;
+    }
 
-        if (gains.isEmpty()) {
-            return ok("NO_GAIN");
+    private ActionOutcome resourceGainInternal(MatchState match) {
+        if (match.cellCount() == 0) {
+            return ok("NO_CELLS");
         }
 
-        for (Map.Entry<Integer, EnumMap<ResourceType, Integer>> e : gains.entrySet()) {
-            Integer seat = e.getKey();
-            MatchPlayer p = bySeat.get(seat);
-            if (p == null || !p.isAlive()) continue;
+        if (match.getPlayerCount() == 0) {
+            return fail("NO_PLAYERS");
+        }
 
-            EnumMap<ResourceType, Integer> perRes = e.getValue();
-            for (Map.Entry<ResourceType, Integer> gr : perRes.entrySet()) {
-                ResourceType rt = gr.getKey();
-                int amount = gr.getValue();
-                switch (rt) {
-                    case WOOD  -> p.setWood(p.getWood() + amount);
-                    case STONE -> p.setStone(p.getStone() + amount);
-                    case GLASS -> p.setGlass(p.getGlass() + amount);
-                    case FORCE -> p.setForce(p.getForce() + amount);
+        Rules rules = match.rules();
+        RandomGenerator rnd = match.random();
+        boolean anyHouses = false;
+        for (PlayerState p : match.players()) {
+            if (p == null) continue;
+
+            boolean owns = false;
+            for (RegionType rt : REGIONS) {
+                int cnt = match.houses(p.getSeat(), rt);
+                if (cnt == 0) continue;
+                anyHouses = owns = true;
+
+                int perHouse = rules.perHouse(cnt);
+
+                // Coin flips are drawn for dead players too, so the draws seen by later seats don't shift.
+                ResourceType heads = rules.heads(rt);
+                if (heads != null) {
+                    int headsHouses = coinFlips(rnd, cnt);
+                    if (p.isAlive()) {
+                        p.add(heads, headsHouses * perHouse);
+                        p.add(rules.tails(rt), (cnt - headsHouses) * perHouse);
+                    }
                 }
+                if (p.isAlive()) p.add(rules.yield(rt), cnt * perHouse);
             }
+
+            if (owns && p.isAlive()) match.touch(p);
         }
 
-        playerRepo.saveAll(players);
+        if (!anyHouses) {
+            return ok("NO_HOUSES");
+        }
 
         return ok("RESOURCE_GAIN_APPLIED");
     }
 
-    private ActionOutcome lightningRechargeInternal(Long matchId) {
-        List<MatchPlayer> players = playerRepo.findByMatchIdOrderBySeatAsc(matchId);
-        if (players.isEmpty()) {
+    // Each coin-flip house yields one of two resources with equal odds; the number of heads is the
+    // popcount of n random bits, which draws one long per 64 houses instead of one double per house.
+    private static int coinFlips(RandomGenerator rnd, int n) {
+        int heads = 0;
+        for (; n >= 64; n -= 64) {
+            heads += Long.bitCount(rnd.nextLong());
+        }
+        if (n > 0) {
+            heads += Long.bitCount(rnd.nextLong() & ((1L << n) - 1));
+        }
+        return heads;
+    }
+
+    private ActionOutcome lightningRechargeInternal(MatchState match) {
+        if (match.getPlayerCount() == 0) {
             return fail("NO_PLAYERS");
         }
 
-        List<MatchPlayer> alive = players.stream()
-                .filter(MatchPlayer::isAlive)
+        List<PlayerState> alive = match.players().stream()
+                .filter(p -> p != null && p.isAlive())
                 .toList();
 
         if (alive.isEmpty()) {
@@ -156,7 +228,7 @@ public class ResourceService{
         }
 
         boolean allEmpty = true;
-        for (MatchPlayer p : alive) {
+        for (PlayerState p : alive) {
             if (p.getLightning() > 0) {
                 allEmpty = false;
                 break;
@@ -167,12 +239,11 @@ public class ResourceService{
             return ok("NO_RECHARGE (SOME_HAVE_LIGHTNING)");
         }
 
-        for (MatchPlayer p : alive) {
+        for (PlayerState p : alive) {
             p.setLightning(p.getLightning() + 1);
+            match.touch(p);
         }
 
-        playerRepo.saveAll(alive);
-
         return ok("LIGHTNING_RECHARGED");
     }
 
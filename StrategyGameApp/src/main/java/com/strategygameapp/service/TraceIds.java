@@ -0,0 +1,17 @@
+package com.strategygameapp.service;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Random (version 4) trace ids drawn from ThreadLocalRandom instead of the shared SecureRandom. */
+final class TraceIds {
+
+    private TraceIds() {}
+
+    static String next() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long msb = (rnd.nextLong() & ~0xF000L) | 0x4000L;
+        long lsb = (rnd.nextLong() & ~(0x3L << 62)) | (0x2L << 62);
+        return new UUID(msb, lsb).toString();
+    }
+}
@@ -3,163 +3,302 @@ package com.strategygameapp.service;
 import com.strategygameapp.dto.trade.AcceptTradeRequest;
 import com.strategygameapp.dto.trade.CreateTradeRequest;
 import com.strategygameapp.dto.trade.TradeResponse;
+import com.strategygameapp.engine.ActionLog;
+import com.strategygameapp.engine.LogPayload;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.engine.ResourceVector;
+import com.strategygameapp.engine.TradeBook;
+import com.strategygameapp.engine.TradeEntry;
 import com.strategygameapp.model.Match;
-import com.strategygameapp.model.MatchPlayer;
 import com.strategygameapp.model.TradeOffer;
+import com.strategygameapp.model.enums.ActionType;
+import com.strategygameapp.model.enums.MatchStatus;
 import com.strategygameapp.model.enums.ResourceType;
 import com.strategygameapp.model.enums.TradeStatus;
-import com.strategygameapp.repository.MatchPlayerRepository;
 import com.strategygameapp.repository.MatchRepository;
 import com.strategygameapp.repository.TradeOfferRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class TradeService {
 
+    private static final ResourceType[] RESOURCES = ResourceType.values();
+    private static final int MAX_AMOUNT = 1_000_000;
+
     private final TradeOfferRepository tradeRepo;
     private final MatchRepository matchRepo;
-    private final MatchPlayerRepository playerRepo;
+    private final MatchEngine engine;
+    private final ActionLog actionLog;
+
+    @Value("${game.trades.auto-match:true}")
+    private boolean autoMatch;
+
+    /**
+     * Offers of a match, optionally narrowed by status and by offering and/or addressed seat. A resident match
+     * answers from its book, where the expiry wheel has already closed due offers; any other match from its rows,
+     * which are current because a match is only unloaded once its changes are flushed.
+     */
+    public List<TradeOffer> list(Long matchId, String status, Integer from, Integer to) {
+        TradeStatus st = (status == null || status.isBlank()) ? null : TradeStatus.valueOf(status.toUpperCase(Locale.ROOT));
+        Match ref = Match.builder().id(matchId).build();
+
+        Optional<List<TradeOffer>> live = engine.query(matchId, m -> {
+            TradeBook book = m.trades();
+            Collection<TradeEntry> source;
+            if (st == TradeStatus.OPEN && from != null) {
+                source = book.openFrom(from);
+            } else if (st == TradeStatus.OPEN && to != null) {
+                source = new ArrayList<>(book.openTo(to));
+                source.addAll(book.openTo(0));
+            } else {
+                source = book.list(st);
+            }
+            return select(source, from, to, ref);
+        });
+        if (live.isPresent()) return live.get();
+
+        List<TradeOffer> rows = st == null ? tradeRepo.findByMatchId(matchId) : tradeRepo.findByMatchIdAndStatus(matchId, st);
+        return select(rows.stream().map(TradeEntry::of).toList(), from, to, ref);
+    }
 
-    public List<TradeOffer> list(Long matchId, String status) {
-        if (status == null || status.isBlank()) {
-            return tradeRepo.findByMatchId(matchId);
-        }
-        TradeStatus st = TradeStatus.valueOf(status.toUpperCase(Locale.ROOT));
-        return tradeRepo.findByMatchIdAndStatus(matchId, st);
+    private static List<TradeOffer> select(Collection<TradeEntry> source, Integer from, Integer to, Match ref) {
+        return source.stream()
+                .filter(e -> from == null || e.getFrom() == from)
+                .filter(e -> to == null || e.getTo() == to || e.getTo() == -1)
+                .sorted(Comparator.comparingLong(TradeEntry::getId))
+                .map(e -> e.toEntity(ref))
+                .toList();
+    }
+
+    // Offers only change while their match runs. A match that isn't resident is checked against its row first, so
+    // trade requests for finished or unknown matches never load one into the engine.
+    private boolean mayBeRunning(Long matchId) {
+        return engine.isResident(matchId)
+                || matchRepo.findById(matchId).map(m -> m.getStatus() == MatchStatus.RUNNING).orElse(false);
     }
 
-    @Transactional
     public Optional<TradeOffer> create(Long matchId, CreateTradeRequest req) {
-        if (req == null ||
-                req.getFrom() == null || req.getTo() == null ||
-                req.getGive() == null || req.getGet() == null) {
+        if (req == null || req.getFrom() == null || req.getTo() == null) {
             return Optional.empty();
         }
 
-        Match m = matchRepo.findById(matchId).orElse(null);
-        if (m == null) return Optional.empty();
+        ResourceVector gives = bundle(req.getGive(), req.getGiveAmount(), req.getGiveBundle());
+        ResourceVector gets  = bundle(req.getGet(), req.getGetAmount(), req.getGetBundle());
+        if (gives == null || gets == null || gives.overlaps(gets)) return Optional.empty();
+        if (!mayBeRunning(matchId)) return Optional.empty();
 
-        MatchPlayer from = playerRepo.findByMatchIdAndSeat(matchId, req.getFrom()).orElse(null);
-        if (from == null) return Optional.empty();
-
-        ResourceType give = ResourceType.valueOf(req.getGive().toUpperCase(Locale.ROOT));
-        ResourceType get  = ResourceType.valueOf(req.getGet().toUpperCase(Locale.ROOT));
+        boolean seated = engine.execute(matchId,
+                m -> m.getStatus() == MatchStatus.RUNNING && m.player(req.getFrom()) != null).orElse(false);
+        if (!seated) return Optional.empty();
 
         OffsetDateTime now = OffsetDateTime.now();
         long ttl = (req.getTtlMs() != null && req.getTtlMs() > 0) ? req.getTtlMs() : 20000L;
 
         TradeOffer offer = TradeOffer.builder()
-                .match(m)
+                .match(matchRepo.getReferenceById(matchId))
                 .from(req.getFrom())
                 .to(req.getTo())
-                .give(give)
-                .get(get)
+                .give(gives.first())
+                .get(gets.first())
+                .giveWood(gives.get(ResourceType.WOOD))
+                .giveStone(gives.get(ResourceType.STONE))
+                .giveGlass(gives.get(ResourceType.GLASS))
+                .giveForce(gives.get(ResourceType.FORCE))
+                .getWood(gets.get(ResourceType.WOOD))
+                .getStone(gets.get(ResourceType.STONE))
+                .getGlass(gets.get(ResourceType.GLASS))
+                .getForce(gets.get(ResourceType.FORCE))
                 .status(TradeStatus.OPEN)
                 .createdAt(now)
                 .expiresAt(now.plusNanos(ttl * 1_000_000))
                 .build();
 
+        // The row is committed before the book sees the offer, so every offer in a book exists in the table.
         tradeRepo.save(offer);
-        return Optional.of(offer);
+        TradeEntry entry = TradeEntry.of(offer);
+        Match ref = Match.builder().id(matchId).build();
+        Optional<TradeOffer> created = engine.executeResident(matchId, m -> {
+            if (m.getStatus() != MatchStatus.RUNNING || m.player(req.getFrom()) == null) {
+                // A reload in the meantime may have read the new row into the book.
+                TradeEntry loaded = m.trades().get(entry.getId());
+                if (loaded != null && loaded.isOpen()) {
+                    m.trades().close(loaded, TradeStatus.CANCELLED, null, OffsetDateTime.now());
+                }
+                return Optional.<TradeOffer>empty();
+            }
+            TradeEntry added = m.trades().add(entry);
+            if (autoMatch && added == entry) match(m, entry, OffsetDateTime.now());
+            return Optional.of(added.toEntity(ref));
+        }).flatMap(o -> o);
+
+        // The match ended, or was unloaded once it had, while the row was inserted: it must not stay open.
+        if (created.isEmpty()) {
+            offer.setStatus(TradeStatus.CANCELLED);
+            offer.setClosedAt(OffsetDateTime.now());
+            tradeRepo.save(offer);
+        }
+        return created;
+    }
+
+    // One side of an offer: a bundle of amounts, or a single resource with an amount that defaults to one.
+    private static ResourceVector bundle(String single, Integer amount, Map<String, Integer> bundle) {
+        int[] out = new int[ResourceVector.LANES];
+        if (bundle != null && !bundle.isEmpty()) {
+            for (Map.Entry<String, Integer> e : bundle.entrySet()) {
+                int n = e.getValue() == null ? 0 : e.getValue();
+                if (n < 0 || n > MAX_AMOUNT) return null;
+                out[ResourceType.valueOf(e.getKey().toUpperCase(Locale.ROOT)).ordinal()] = n;
+            }
+        } else if (single != null) {
+            int n = amount == null ? 1 : amount;
+            if (n <= 0 || n > MAX_AMOUNT) return null;
+            out[ResourceType.valueOf(single.toUpperCase(Locale.ROOT)).ordinal()] = n;
+        } else {
+            return null;
+        }
+        ResourceVector v = ResourceVector.of(out);
+        return v.isZero() ? null : v;
     }
 
-    @Transactional
     public AcceptResult accept(Long matchId, Long offerId, AcceptTradeRequest req) {
-        OffsetDateTime now = OffsetDateTime.now();
+        if (!mayBeRunning(matchId)) {
+            return tradeRepo.findByIdAndMatchId(offerId, matchId).isPresent()
+                    ? AcceptResult.conflict("MATCH_NOT_RUNNING") : AcceptResult.notFound();
+        }
+        if (req == null || req.getToSeat() == null) {
+            return engine.execute(matchId, m -> m.trades().get(offerId) == null
+                            ? AcceptResult.notFound() : AcceptResult.conflict("MISSING_TO_SEAT"))
+                    .orElseGet(AcceptResult::notFound);
+        }
+        int toSeat = req.getToSeat();
+        return engine.execute(matchId, m -> acceptInternal(m, offerId, toSeat))
+                .orElseGet(AcceptResult::notFound);
+    }
 
-        var opt = tradeRepo.findByIdAndMatchId(offerId, matchId);
-        if (opt.isEmpty()) return AcceptResult.notFound();
+    /** Cancels an open offer; an offer that can no longer change, closed or in a match that isn't running, is returned as is. */
+    public Optional<TradeOffer> cancel(Long matchId, Long offerId, Integer bySeat) {
+        Match ref = Match.builder().id(matchId).build();
+        if (!mayBeRunning(matchId)) {
+            return tradeRepo.findByIdAndMatchId(offerId, matchId).map(o -> TradeEntry.of(o).toEntity(ref));
+        }
+        return engine.execute(matchId, m -> {
+            TradeEntry t = m.trades().get(offerId);
+            if (t == null) return Optional.<TradeOffer>empty();
+            if (!t.isOpen() || m.getStatus() != MatchStatus.RUNNING) return Optional.of(t.toEntity(ref));
+
+            // (Optional) only owner can cancel
+            if (bySeat != null && t.getFrom() != bySeat) {
+                return Optional.<TradeOffer>empty();
+            }
+
+            m.trades().close(t, TradeStatus.CANCELLED, null, OffsetDateTime.now());
+            return Optional.of(t.toEntity(ref));
+        }).flatMap(o -> o);
+    }
 
-        TradeOffer t = opt.get();
-        if (t.getStatus() != TradeStatus.OPEN) return AcceptResult.conflict("OFFER_CLOSED");
+    private AcceptResult acceptInternal(MatchState m, long offerId, int toSeat) {
+        OffsetDateTime now = OffsetDateTime.now();
+        TradeBook book = m.trades();
 
-        if (req == null || req.getToSeat() == null) return AcceptResult.conflict("MISSING_TO_SEAT");
+        TradeEntry t = book.get(offerId);
+        if (t == null) return AcceptResult.notFound();
+        if (m.getStatus() != MatchStatus.RUNNING) return AcceptResult.conflict("MATCH_NOT_RUNNING");
+        if (!t.isOpen()) return AcceptResult.conflict("OFFER_CLOSED");
 
-        if (t.getTo() != -1 && t.getTo() != req.getToSeat()) {
+        if (t.getTo() != -1 && t.getTo() != toSeat) {
             return AcceptResult.conflict("NOT_TARGET_OF_OFFER");
         }
 
         if (now.isAfter(t.getExpiresAt())) {
-            t.setStatus(TradeStatus.EXPIRED);
-            t.setClosedAt(now);
-            tradeRepo.save(t);
+            book.close(t, TradeStatus.EXPIRED, null, now);
             return AcceptResult.conflict("OFFER_EXPIRED");
         }
 
-        MatchPlayer from = playerRepo.findByMatchIdAndSeat(matchId, t.getFrom()).orElse(null);
-        MatchPlayer to   = playerRepo.findByMatchIdAndSeat(matchId, req.getToSeat()).orElse(null);
-        if (from == null || to == null) return AcceptResult.conflict("INVALID_PLAYER");
-
-        if (!has(from, t.getGive(), 1)) return AcceptResult.conflict("OFFER_OWNER_LACKS_" + t.getGive());
-        if (!has(to,   t.getGet(),  1)) return AcceptResult.conflict("ACCEPTER_LACKS_" + t.getGet());
-
-        dec(from, t.getGive());
-        inc(to,   t.getGive(), 1);
-
-        dec(to,   t.getGet());
-        inc(from, t.getGet(), 1);
-
-        playerRepo.save(from);
-        playerRepo.save(to);
-
-        t.setStatus(TradeStatus.ACCEPTED);
-        t.setAcceptedBySeat(req.getToSeat());
-        t.setClosedAt(now);
-        tradeRepo.save(t);
-
-        return AcceptResult.accept();
+        AcceptResult settled = settle(m, t, toSeat);
+        if (settled.accepted()) book.close(t, TradeStatus.ACCEPTED, toSeat, now);
+        return settled;
     }
 
-    @Transactional
-    public Optional<TradeOffer> cancel(Long matchId, Long offerId, Integer bySeat) {
-        var opt = tradeRepo.findByIdAndMatchId(offerId, matchId);
-        if (opt.isEmpty()) return Optional.empty();
-
-        TradeOffer t = opt.get();
-        if (t.getStatus() != TradeStatus.OPEN) return Optional.of(t);
-
-        // (Optional) only owner can cancel
-        if (bySeat != null && t.getFrom() != bySeat) {
-            return Optional.empty();
+    /**
+     * Crosses a new single-resource offer with the best open counter-offer (giving what it asks for and asking
+     * for what it gives) and settles both in one step, on the resting offer's terms. The pair index yields
+     * counter-offers best price first and oldest first within a price, so the scan stops at the first one that
+     * fills the new offer, or at the first price the new offer wouldn't take.
+     */
+    private void match(MatchState m, TradeEntry taker, OffsetDateTime now) {
+        if (!taker.isSimple()) return;
+        TradeBook book = m.trades();
+        book.expireDue(now);
+        if (!taker.isOpen()) return;
+
+        PlayerState seat = m.player(taker.getFrom());
+        if (seat == null) return;
+        int pays = taker.giveAmount(taker.getGive());
+        int wants = taker.getAmount(taker.getGet());
+
+        TradeEntry maker = null;
+        for (TradeEntry c : book.open(taker.getGet(), taker.getGive())) {
+            int offers = c.giveAmount(c.getGive());
+            int asks = c.getAmount(c.getGet());
+            if ((long) offers * pays < (long) wants * asks) break;
+            if (offers < wants || asks > pays) continue;
+            if (c.getFrom() == taker.getFrom()) continue;
+            if (c.getTo() != -1 && c.getTo() != taker.getFrom()) continue;
+            if (taker.getTo() != -1 && taker.getTo() != c.getFrom()) continue;
+            PlayerState owner = m.player(c.getFrom());
+            if (owner == null || !owner.has(c.getGives())) continue;
+            if (!seat.has(c.getGets())) continue;
+            maker = c;
+            break;
         }
+        if (maker == null) return;
 
-        t.setStatus(TradeStatus.CANCELLED);
-        t.setClosedAt(OffsetDateTime.now());
-        tradeRepo.save(t);
-        return Optional.of(t);
+        settle(m, maker, taker.getFrom(), "TRADE_MATCHED:" + taker.getId() + ":" + maker.getId());
+        book.close(maker, TradeStatus.ACCEPTED, taker.getFrom(), now);
+        book.close(taker, TradeStatus.ACCEPTED, maker.getFrom(), now);
     }
 
-    private boolean has(MatchPlayer p, ResourceType r, int n) {
-        return switch (r) {
-            case WOOD -> p.getWood() >= n;
-            case STONE -> p.getStone() >= n;
-            case GLASS -> p.getGlass() >= n;
-            case FORCE -> p.getForce() >= n;
-        };
+    private AcceptResult settle(MatchState m, TradeEntry t, int toSeat) {
+        return settle(m, t, toSeat, "TRADE_ACCEPTED:" + t.getId());
     }
-    private void inc(MatchPlayer p, ResourceType r, int n) {
-        switch (r) {
-            case WOOD -> p.setWood(p.getWood() + n);
-            case STONE -> p.setStone(p.getStone() + n);
-            case GLASS -> p.setGlass(p.getGlass() + n);
-            case FORCE -> p.setForce(p.getForce() + n);
-        }
-    }
-    private void dec(MatchPlayer p, ResourceType r) {
-        switch (r) {
-            case WOOD -> p.setWood(p.getWood() - 1);
-            case STONE -> p.setStone(p.getStone() - 1);
-            case GLASS -> p.setGlass(p.getGlass() - 1);
-            case FORCE -> p.setForce(p.getForce() - 1);
-        }
+
+    // Both bundles are checked before anything moves, so a trade settles entirely or not at all.
+    private AcceptResult settle(MatchState m, TradeEntry t, int toSeat, String message) {
+        PlayerState from = m.player(t.getFrom());
+        PlayerState to   = m.player(toSeat);
+        if (from == null || to == null) return AcceptResult.conflict("INVALID_PLAYER");
+
+        ResourceType ownerLacks = from.lacking(t.getGives());
+        if (ownerLacks != null) return AcceptResult.conflict("OFFER_OWNER_LACKS_" + ownerLacks);
+        ResourceType accepterLacks = to.lacking(t.getGets());
+        if (accepterLacks != null) return AcceptResult.conflict("ACCEPTER_LACKS_" + accepterLacks);
+
+        int[] before = LogPayload.capture(m.players());
+        from.pay(t.getGives());
+        to.add(t.getGives());
+        to.pay(t.getGets());
+        from.add(t.getGets());
+
+        m.touch(from);
+        m.touch(to);
+        actionLog.append(m, toSeat, ActionType.TRADE_ACCEPT, -1, -1, message,
+                LogPayload.diff(before, LogPayload.capture(m.players())));
+        return AcceptResult.accept();
     }
 
     public TradeResponse toResponse(TradeOffer t) {
@@ -170,6 +309,8 @@ public class TradeService {
                 t.getTo(),
                 t.getGive().name(),
                 t.getGet().name(),
+                amounts(t.getGiveWood(), t.getGiveStone(), t.getGiveGlass(), t.getGiveForce()),
+                amounts(t.getGetWood(), t.getGetStone(), t.getGetGlass(), t.getGetForce()),
                 t.getStatus().name(),
                 t.getCreatedAt(),
                 t.getExpiresAt(),
@@ -178,6 +319,14 @@ public class TradeService {
         );
     }
 
+    private static Map<String, Integer> amounts(int... byOrdinal) {
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (ResourceType r : RESOURCES) {
+            if (byOrdinal[r.ordinal()] != 0) out.put(r.name(), byOrdinal[r.ordinal()]);
+        }
+        return out;
+    }
+
     public record AcceptResult(boolean found, boolean accepted, String error) {
         static AcceptResult notFound() {
             return new AcceptResult(false, false, "NOT_FOUND");
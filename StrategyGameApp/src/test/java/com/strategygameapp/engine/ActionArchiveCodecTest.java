@@ -0,0 +1,63 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.ActionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ActionArchiveCodecTest {
+
+    @Test
+    void roundTripsRecords() {
+        OffsetDateTime ts = OffsetDateTime.parse("2026-03-04T05:06:07.890Z");
+        List<ActionRecord> records = List.of(
+                new ActionRecord(5, 1, 0, ActionType.SYSTEM, -1, -1, "MATCH_CREATED", "1 2 2 2 2 2 2 2 2 2 2 2", ts),
+                new ActionRecord(5, 2, 1, ActionType.BUILD, 3, 4, "BUILD_SUCCESS", null, ts.plusSeconds(1)),
+                new ActionRecord(5, 3, 2, ActionType.END_TURN, -1, -1, null, null, ts.plusSeconds(2)));
+
+        assertEquals(records, ActionArchiveCodec.decode(5, ActionArchiveCodec.encode(records)));
+    }
+
+    @Test
+    void readsFormatOneArchives() throws IOException {
+        OffsetDateTime ts = OffsetDateTime.parse("2025-12-31T23:59:59Z");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(1);
+            out.writeInt(2);
+            out.writeUTF("BUILD");
+            out.writeInt(1);
+            out.writeLong(ts.toInstant().toEpochMilli());
+            out.writeBoolean(true);
+            out.writeUTF("BUILD_SUCCESS");
+            out.writeUTF("END_TURN");
+            out.writeInt(2);
+            out.writeLong(ts.toInstant().toEpochMilli() + 1000);
+            out.writeBoolean(false);
+        }
+
+        List<ActionRecord> records = ActionArchiveCodec.decode(9, bytes.toByteArray());
+
+        assertEquals(List.of(
+                new ActionRecord(9, 0, 1, ActionType.BUILD, -1, -1, "BUILD_SUCCESS", null, ts),
+                new ActionRecord(9, 0, 2, ActionType.END_TURN, -1, -1, null, null, ts.plusSeconds(1))), records);
+    }
+
+    @Test
+    void rejectsUnknownFormats() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(3);
+            out.writeInt(0);
+        }
+        assertThrows(IllegalStateException.class, () -> ActionArchiveCodec.decode(1, bytes.toByteArray()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.strategygameapp.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoardCodecTest {
+
+    @Test
+    void roundTripsEveryPlane() {
+        int n = 300;
+        byte[] regions = new byte[n];
+        int[] owners = new int[n];
+        byte[] hits = new byte[n];
+        for (int i = 0; i < n; i++) {
+            regions[i] = (byte) (i % 5);
+            // Empty cells, low seats and seats past one byte all have to survive the two-byte owner plane.
+            owners[i] = i % 7 == 0 ? -1 : i;
+            hits[i] = (byte) (i % 4);
+        }
+
+        byte[] packed = new byte[BoardCodec.size(n)];
+        BoardCodec.encode(regions, owners, hits, packed);
+        byte[] r = new byte[n];
+        int[] o = new int[n];
+        byte[] h = new byte[n];
+        BoardCodec.decode(packed, r, o, h);
+
+        assertArrayEquals(regions, r);
+        assertArrayEquals(owners, o);
+        assertArrayEquals(hits, h);
+    }
+
+    @Test
+    void laysOutPlanesRegionsOwnersHits() {
+        byte[] packed = new byte[BoardCodec.size(2)];
+        BoardCodec.encode(new byte[]{3, 4}, new int[]{-1, 258}, new byte[]{1, 2}, packed);
+        assertArrayEquals(new byte[]{3, 4, (byte) 0xFF, (byte) 0xFF, 1, 2, 1, 2}, packed);
+        assertEquals(8, BoardCodec.size(2));
+    }
+
+    @Test
+    void rejectsDataOfTheWrongSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BoardCodec.decode(new byte[7], new byte[2], new int[2], new byte[2]));
+    }
+}
@@ -0,0 +1,82 @@
+package com.strategygameapp.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpscRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertEquals(8, new MpscRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new MpscRingBuffer<Integer>(8).capacity());
+    }
+
+    @Test
+    void rejectsOffersWhenFullAndKeepsOrderAcrossWraparound() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        List<Integer> out = new ArrayList<>();
+        int next = 0;
+        int expected = 0;
+        // Ten laps of a four-slot ring, draining in uneven chunks so the head and tail wrap at different points.
+        for (int lap = 0; lap < 10; lap++) {
+            while (ring.hasRoom()) assertTrue(ring.offer(next++));
+            assertFalse(ring.offer(-1));
+            out.clear();
+            ring.drainTo(out, 1 + lap % 3);
+            for (int v : out) assertEquals(expected++, v);
+        }
+        out.clear();
+        ring.drainTo(out, Integer.MAX_VALUE);
+        for (int v : out) assertEquals(expected++, v);
+        assertEquals(next, expected);
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    void keepsEachProducersOrderAndLosesNothing() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    long[] item = {producer, i};
+                    while (!ring.offer(item)) Thread.onSpinWait();
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+
+        long[] nextOf = new long[producers];
+        int received = 0;
+        List<long[]> batch = new ArrayList<>();
+        while (received < producers * perProducer) {
+            batch.clear();
+            if (ring.drainTo(batch, 64) == 0) Thread.onSpinWait();
+            for (long[] item : batch) {
+                assertEquals(nextOf[(int) item[0]]++, item[1]);
+                received++;
+            }
+        }
+        for (Thread t : threads) t.join();
+        assertTrue(ring.isEmpty());
+        for (long n : nextOf) assertEquals(perProducer, n);
+    }
+}
@@ -0,0 +1,95 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.MatchStatus;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnapshotCodecTest {
+
+    private static final Rules RULES = TestMatches.standardRules();
+
+    @Test
+    void roundTripsAMatchInPlay() {
+        MatchState m = TestMatches.funded(TestMatches.blank(7, 4, new byte[]{0, 1, 2, 3, 4, 0, 1, 2, 3, 4, 0, 1}, 3, RULES));
+        m.setCell(0, 1, 0);
+        m.setCell(5, 2, 2);
+        m.setCell(11, 3, 1);
+        m.setStatus(MatchStatus.RUNNING);
+        m.setCurrentTurn(2);
+        m.setStartedAt(OffsetDateTime.parse("2026-02-03T04:05:06.123456789Z"));
+        m.player(1).setWood(9);
+        m.player(3).setLightning(0);
+        m.eliminate(m.player(3));
+        for (int i = 0; i < 7; i++) m.nextLogSeq();
+
+        byte[] data = m.drainChanges(1, Long.MAX_VALUE).snapshot();
+        assertNotNull(data);
+        assertEquals(1, ByteBuffer.wrap(data).getInt(), "format 1");
+
+        MatchState back = SnapshotCodec.decode(m.toMatch(), data, BoardStorage.ROWS, RULES, List.of());
+
+        assertEquals(7, back.getLogSeq());
+        assertEquals(7, back.getBoardVersion());
+        assertEquals(MatchStatus.RUNNING, back.getStatus());
+        assertEquals(2, back.getCurrentTurn());
+        assertNull(back.getWinnerSeat());
+        assertEquals(m.getStartedAt().toInstant(), back.getStartedAt().toInstant());
+        assertNull(back.getFinishedAt());
+        for (int i = 0; i < m.cellCount(); i++) {
+            assertEquals(m.region(i), back.region(i));
+            assertEquals(m.owner(i), back.owner(i));
+            assertEquals(m.hits(i), back.hits(i));
+        }
+        for (int seat = 1; seat <= 3; seat++) {
+            PlayerState a = m.player(seat);
+            PlayerState b = back.player(seat);
+            assertEquals(a.getId(), b.getId());
+            assertEquals(a.isAlive(), b.isAlive());
+            assertEquals(a.getLightning(), b.getLightning());
+            assertEquals(a.getWood(), b.getWood());
+            assertEquals(a.getStone(), b.getStone());
+            assertEquals(a.getGlass(), b.getGlass());
+            assertEquals(a.getForce(), b.getForce());
+            assertEquals(m.houses(seat), back.houses(seat));
+        }
+        assertEquals(2, back.aliveCount());
+        assertEquals(1, back.nextSeat(2));
+        assertFalse(back.isDirty());
+    }
+
+    @Test
+    void rejectsUnknownFormatsAndMismatchedBoards() {
+        MatchState m = TestMatches.blank(8, 2, new byte[4], 2, RULES);
+        m.nextLogSeq();
+        byte[] data = m.drainChanges(1, Long.MAX_VALUE).snapshot();
+        Match match = m.toMatch();
+
+        byte[] future = data.clone();
+        ByteBuffer.wrap(future).putInt(2);
+        assertThrows(IllegalStateException.class,
+                () -> SnapshotCodec.decode(match, future, BoardStorage.ROWS, RULES, List.of()));
+
+        Match resized = Match.builder().id(8L).players(2).width(4).height(1).build();
+        assertThrows(IllegalStateException.class,
+                () -> SnapshotCodec.decode(resized, data, BoardStorage.ROWS, RULES, List.of()));
+    }
+
+    @Test
+    void takesNoSnapshotUntilTheLogMoves() {
+        MatchState m = TestMatches.blank(9, 2, new byte[4], 2, RULES);
+        assertNull(m.drainChanges(1, 0).snapshot());
+        m.nextLogSeq();
+        assertNotNull(m.drainChanges(1, Long.MAX_VALUE).snapshot());
+    }
+}
@@ -0,0 +1,103 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.engine.rules.Ruleset;
+import com.strategygameapp.model.Match;
+import com.strategygameapp.model.enums.ActionType;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.model.enums.RegionType;
+import com.strategygameapp.model.enums.ResourceType;
+import com.strategygameapp.model.enums.TradeStatus;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/** Match states built in memory for tests, the way the store would load them. */
+public final class TestMatches {
+
+    private TestMatches() {}
+
+    /** The standard ruleset from application.properties. */
+    public static Rules standardRules() {
+        Ruleset r = new Ruleset();
+        r.setStartLightning(2);
+        r.getStart().putAll(Map.of(ResourceType.WOOD, 2, ResourceType.STONE, 2, ResourceType.GLASS, 2, ResourceType.FORCE, 2));
+        r.getBuildCost().put(RegionType.SKY, Map.of(ResourceType.WOOD, 1, ResourceType.STONE, 1, ResourceType.FORCE, 2));
+        r.getBuildCost().put(RegionType.FOREST, Map.of(ResourceType.WOOD, 2, ResourceType.STONE, 2));
+        r.getBuildCost().put(RegionType.WATERS,
+                Map.of(ResourceType.WOOD, 1, ResourceType.STONE, 1, ResourceType.GLASS, 2, ResourceType.FORCE, 1));
+        r.getBuildCost().put(RegionType.VILLAGES, Map.of(ResourceType.WOOD, 2, ResourceType.STONE, 2, ResourceType.GLASS, 1));
+        r.getBuildCost().put(RegionType.MOUNTAINS, Map.of(ResourceType.STONE, 3, ResourceType.FORCE, 2));
+        r.getYield().put(RegionType.SKY, Map.of(ResourceType.FORCE, 1));
+        r.getYield().put(RegionType.FOREST, Map.of(ResourceType.WOOD, 1));
+        r.getYield().put(RegionType.WATERS, Map.of(ResourceType.GLASS, 1));
+        r.getYield().put(RegionType.MOUNTAINS, Map.of(ResourceType.STONE, 1));
+        r.getCoinFlip().put(RegionType.VILLAGES, List.of(ResourceType.WOOD, ResourceType.STONE));
+        return Rules.compile("standard", r);
+    }
+
+    /** A PENDING match with an empty board and every seat alive with nothing in hand, like a blank load. */
+    public static MatchState blank(long id, int width, byte[] regions, int seats, Rules rules) {
+        return blank(id, width, regions, seats, rules, List.of());
+    }
+
+    public static MatchState blank(long id, int width, byte[] regions, int seats, Rules rules, List<TradeEntry> trades) {
+        Match m = Match.builder()
+                .id(id)
+                .status(MatchStatus.PENDING)
+                .players(seats)
+                .width(width)
+                .height(regions.length / width)
+                .seed(42L)
+                .mapGenerator("voronoi")
+                .ruleset(rules.name())
+                .createdAt(OffsetDateTime.parse("2026-01-01T00:00:00Z"))
+                .build();
+        int[] owners = new int[regions.length];
+        Arrays.fill(owners, -1);
+        List<PlayerState> players = new ArrayList<>(seats);
+        for (int seat = 1; seat <= seats; seat++) {
+            PlayerState p = new PlayerState(100 + seat, seat, false);
+            p.setAlive(true);
+            players.add(p);
+        }
+        return new MatchState(m, regions.clone(), owners, new byte[regions.length], players, BoardStorage.ROWS,
+                rules, trades);
+    }
+
+    /** Gives every seat the ruleset's starting lightning and resources, as match creation does. */
+    public static MatchState funded(MatchState m) {
+        for (PlayerState p : m.players()) {
+            p.setLightning(m.rules().startLightning());
+            p.add(m.rules().start());
+        }
+        return m;
+    }
+
+    /** An ActionLog that numbers entries like the real one and collects them instead of writing them. */
+    public static ActionLog recordingLog(List<ActionRecord> into) {
+        ActionLog log = mock(ActionLog.class);
+        doAnswer(inv -> {
+            MatchState m = inv.getArgument(0);
+            into.add(new ActionRecord(m.getMatchId(), m.nextLogSeq(), inv.getArgument(1), inv.getArgument(2),
+                    inv.getArgument(3), inv.getArgument(4), inv.getArgument(5), inv.getArgument(6), OffsetDateTime.now()));
+            return null;
+        }).when(log).append(any(), anyInt(), any(ActionType.class), anyInt(), anyInt(), any(), any());
+        return log;
+    }
+
+    public static TradeEntry offer(long id, int from, int to, ResourceType give, int giveAmount, ResourceType get,
+                                   int getAmount, OffsetDateTime expiresAt) {
+        return new TradeEntry(id, from, to, ResourceVector.of(give, giveAmount), ResourceVector.of(get, getAmount),
+                give, get, TradeStatus.OPEN, expiresAt.minusMinutes(5), expiresAt,
+                null, null);
+    }
+}
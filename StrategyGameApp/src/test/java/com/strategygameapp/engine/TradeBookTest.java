@@ -0,0 +1,81 @@
+package com.strategygameapp.engine;
+
+import com.strategygameapp.model.enums.TradeStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.strategygameapp.model.enums.ResourceType.GLASS;
+import static com.strategygameapp.model.enums.ResourceType.STONE;
+import static com.strategygameapp.model.enums.ResourceType.WOOD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradeBookTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-05-01T12:00:00Z");
+
+    @Test
+    void ordersOffersByPriceThenTime() {
+        TradeBook book = new TradeBook(List.of());
+        // Wood offered for stone: the taker's best price is the most wood per stone, the oldest first within a price.
+        book.add(TestMatches.offer(1, 1, 0, WOOD, 2, STONE, 1, NOW.plusHours(1)));
+        book.add(TestMatches.offer(2, 2, 0, WOOD, 3, STONE, 1, NOW.plusHours(1)));
+        book.add(TestMatches.offer(3, 3, 0, WOOD, 4, STONE, 2, NOW.plusHours(1)));
+        book.add(TestMatches.offer(4, 1, 0, WOOD, 1, STONE, 1, NOW.plusHours(1)));
+        book.add(TestMatches.offer(5, 2, 0, WOOD, 2, STONE, 1, NOW.plusHours(1)));
+        book.add(TestMatches.offer(6, 2, 0, STONE, 5, WOOD, 1, NOW.plusHours(1)));
+
+        assertEquals(List.of(2L, 1L, 3L, 5L, 4L), ids(book.open(WOOD, STONE)));
+        assertEquals(List.of(6L), ids(book.open(STONE, WOOD)));
+        assertTrue(book.open(WOOD, GLASS).isEmpty());
+
+        book.close(book.get(2), TradeStatus.ACCEPTED, 3, NOW);
+        assertEquals(List.of(1L, 3L, 5L, 4L), ids(book.open(WOOD, STONE)));
+        assertEquals(List.of(2L), ids(book.list(TradeStatus.ACCEPTED)));
+        assertEquals(List.of(5L, 6L), ids(book.openFrom(2)));
+    }
+
+    @Test
+    void expiresOffersWhoseTimeIsUp() {
+        List<Long> scheduled = new ArrayList<>();
+        TradeBook book = new TradeBook(List.of(
+                TestMatches.offer(1, 1, 0, WOOD, 1, STONE, 1, NOW.minusSeconds(1)),
+                TestMatches.offer(2, 1, 2, WOOD, 1, STONE, 1, NOW.plusSeconds(30)),
+                TestMatches.offer(3, 2, 0, GLASS, 1, STONE, 1, NOW.plusSeconds(10))));
+        book.onNextExpiry(scheduled::add);
+        assertEquals(List.of(NOW.minusSeconds(1).toInstant().toEpochMilli()), scheduled);
+
+        assertEquals(1, book.expireDue(NOW));
+        assertEquals(TradeStatus.EXPIRED, book.get(1).getStatus());
+        assertEquals(NOW, book.get(1).getClosedAt());
+        assertEquals(List.of(2L), ids(book.open(WOOD, STONE)));
+        // The next deadline is asked for once the earlier one has gone.
+        book.expiryTimerFired(NOW);
+        assertEquals(NOW.plusSeconds(10).toInstant().toEpochMilli(), scheduled.get(scheduled.size() - 1));
+
+        assertEquals(0, book.expireDue(NOW.plusSeconds(5)));
+        assertEquals(2, book.expireDue(NOW.plusMinutes(1)));
+        assertTrue(book.list(TradeStatus.OPEN).isEmpty());
+        assertTrue(book.openTo(2).isEmpty());
+        assertEquals(3, book.drainChanges().length);
+        assertFalse(book.hasChanges());
+    }
+
+    @Test
+    void leavesClosedOffersAlone() {
+        TradeBook book = new TradeBook(List.of(TestMatches.offer(1, 1, 0, WOOD, 1, STONE, 1, NOW.minusSeconds(1))));
+        book.close(book.get(1), TradeStatus.CANCELLED, null, NOW.minusSeconds(2));
+        assertEquals(0, book.expireDue(NOW));
+        assertEquals(TradeStatus.CANCELLED, book.get(1).getStatus());
+    }
+
+    private static List<Long> ids(Iterable<TradeEntry> entries) {
+        List<Long> out = new ArrayList<>();
+        for (TradeEntry e : entries) out.add(e.getId());
+        return out;
+    }
+}
@@ -0,0 +1,67 @@
+package com.strategygameapp.engine.map;
+
+import com.strategygameapp.model.enums.RegionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VoronoiMapGeneratorTest {
+
+    private static final int WIDTH = 301;
+    private static final int HEIGHT = 257;
+
+    @Test
+    void sameSeedGivesTheSameMap() {
+        VoronoiMapGenerator generator = generator(Integer.MAX_VALUE);
+        assertArrayEquals(generate(generator, 1234L), generate(generator, 1234L));
+        assertFalse(Arrays.equals(generate(generator, 1234L), generate(generator, 1235L)));
+    }
+
+    @Test
+    void parallelFillMatchesTheSequentialOne() {
+        byte[] sequential = generate(generator(Integer.MAX_VALUE), 99L);
+        // A threshold this low splits the board into bands of a single grid row.
+        byte[] parallel = generate(generator(1), 99L);
+        byte[] banded = generate(generator(4096), 99L);
+        assertArrayEquals(sequential, parallel);
+        assertArrayEquals(sequential, banded);
+    }
+
+    @Test
+    void usesEveryRegionAndNothingElse() {
+        byte[] map = generate(generator(Integer.MAX_VALUE), 7L);
+        int[] counts = new int[RegionType.values().length];
+        for (byte r : map) counts[r]++;
+        for (int c : counts) assertTrue(c > 0);
+        assertEquals(WIDTH * HEIGHT, Arrays.stream(counts).sum());
+    }
+
+    @Test
+    void fillsBoardsSmallerThanOneGridCell() {
+        VoronoiMapGenerator generator = generator(Integer.MAX_VALUE);
+        byte[] a = new byte[3];
+        byte[] b = new byte[3];
+        generator.generate(3, 1, 5L, a);
+        generator.generate(3, 1, 5L, b);
+        assertArrayEquals(a, b);
+    }
+
+    private static VoronoiMapGenerator generator(int parallelThreshold) {
+        VoronoiMapGenerator generator = new VoronoiMapGenerator();
+        ReflectionTestUtils.setField(generator, "cellSize", 6);
+        ReflectionTestUtils.setField(generator, "parallelThreshold", parallelThreshold);
+        return generator;
+    }
+
+    private static byte[] generate(VoronoiMapGenerator generator, long seed) {
+        byte[] regions = new byte[WIDTH * HEIGHT];
+        generator.generate(WIDTH, HEIGHT, seed, regions);
+        return regions;
+    }
+}
@@ -0,0 +1,82 @@
+package com.strategygameapp.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+    @Test
+    void waitsOutEveryRoundOfADelayLongerThanTheWheel() throws InterruptedException {
+        // Four 5 ms slots make a 20 ms wheel, so a 100 ms delay has to go round five times.
+        try (HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 5, TimeUnit.MILLISECONDS, 4)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            AtomicLong firedAt = new AtomicLong();
+            long start = System.nanoTime();
+            wheel.schedule(() -> {
+                firedAt.set(System.nanoTime());
+                fired.countDown();
+            }, 100, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(firedAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(100),
+                    "fired after " + TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start) + " ms");
+        }
+    }
+
+    @Test
+    void runsTimeoutsInDeadlineOrder() throws InterruptedException {
+        try (HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 2, TimeUnit.MILLISECONDS, 8)) {
+            StringBuffer order = new StringBuffer();
+            CountDownLatch done = new CountDownLatch(3);
+            wheel.schedule(() -> { order.append('c'); done.countDown(); }, 60, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.append('a'); done.countDown(); }, 10, TimeUnit.MILLISECONDS);
+            wheel.schedule(() -> { order.append('b'); done.countDown(); }, 35, TimeUnit.MILLISECONDS);
+
+            assertTrue(done.await(2, TimeUnit.SECONDS));
+            assertEquals("abc", order.toString());
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsNeverRun() throws InterruptedException {
+        try (HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 2, TimeUnit.MILLISECONDS, 4)) {
+            AtomicInteger cancelledRuns = new AtomicInteger();
+            CountDownLatch later = new CountDownLatch(1);
+            // One cancelled before the wheel has placed it, one after it has gone round a few times.
+            wheel.schedule(cancelledRuns::incrementAndGet, 20, TimeUnit.MILLISECONDS).cancel();
+            HashedTimingWheel.Timeout placed = wheel.schedule(cancelledRuns::incrementAndGet, 40, TimeUnit.MILLISECONDS);
+            Thread.sleep(15);
+            placed.cancel();
+            assertTrue(placed.isCancelled());
+            wheel.schedule(later::countDown, 80, TimeUnit.MILLISECONDS);
+
+            assertTrue(later.await(2, TimeUnit.SECONDS));
+            assertEquals(0, cancelledRuns.get());
+        }
+    }
+
+    @Test
+    void repeatsFixedRateTimeoutsUntilCancelled() throws InterruptedException {
+        try (HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 2, TimeUnit.MILLISECONDS, 4)) {
+            AtomicInteger runs = new AtomicInteger();
+            CountDownLatch three = new CountDownLatch(3);
+            HashedTimingWheel.Timeout t = wheel.scheduleAtFixedRate(() -> {
+                runs.incrementAndGet();
+                three.countDown();
+            }, 5, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(three.await(2, TimeUnit.SECONDS));
+            t.cancel();
+            int seen = runs.get();
+            Thread.sleep(60);
+            assertTrue(runs.get() <= seen + 1, "ran " + (runs.get() - seen) + " more times after cancel");
+        }
+    }
+}
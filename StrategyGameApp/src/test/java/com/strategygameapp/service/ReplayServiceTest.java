@@ -0,0 +1,163 @@
+package com.strategygameapp.service;
+
+import com.strategygameapp.dto.action.ActionRequest;
+import com.strategygameapp.dto.action.ActionResultResponse;
+import com.strategygameapp.dto.action.EndTurnRequest;
+import com.strategygameapp.engine.ActionHistory;
+import com.strategygameapp.engine.ActionLog;
+import com.strategygameapp.engine.ActionRecord;
+import com.strategygameapp.engine.LogPayload;
+import com.strategygameapp.engine.MatchEngine;
+import com.strategygameapp.engine.MatchState;
+import com.strategygameapp.engine.MatchStateStore;
+import com.strategygameapp.engine.PlayerState;
+import com.strategygameapp.engine.TestMatches;
+import com.strategygameapp.engine.rules.Rules;
+import com.strategygameapp.model.enums.ActionType;
+import com.strategygameapp.model.enums.MatchStatus;
+import com.strategygameapp.scheduler.TickScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplayServiceTest {
+
+    private static final long MATCH_ID = 11;
+    private static final int WIDTH = 4;
+    // Forest all over, except sky down the right-hand edge.
+    private static final byte[] REGIONS = {1, 1, 1, 0, 1, 1, 1, 0, 1, 1, 1, 0};
+    private static final Rules RULES = TestMatches.standardRules();
+
+    private final List<ActionRecord> log = new ArrayList<>();
+    private final MatchEngine engine = mock(MatchEngine.class);
+    private final MatchStateStore store = mock(MatchStateStore.class);
+    private final ActionHistory history = mock(ActionHistory.class);
+
+    private MatchState live;
+    private ActionService actions;
+    private MatchService matches;
+    private ReplayService replay;
+
+    @BeforeEach
+    void setUp() {
+        ActionLog actionLog = TestMatches.recordingLog(log);
+        live = TestMatches.funded(TestMatches.blank(MATCH_ID, WIDTH, REGIONS, 2, RULES));
+        when(engine.execute(eq(MATCH_ID), any())).thenAnswer(inv -> {
+            Function<MatchState, Object> command = inv.getArgument(1);
+            return Optional.of(command.apply(live));
+        });
+        when(store.loadForRebuild(MATCH_ID))
+                .thenAnswer(inv -> Optional.of(TestMatches.blank(MATCH_ID, WIDTH, REGIONS, 2, RULES)));
+        when(history.read(MATCH_ID)).thenAnswer(inv -> List.copyOf(log));
+
+        actions = new ActionService(engine, actionLog, history);
+        matches = new MatchService(null, engine, mock(TickScheduler.class), actionLog,
+                null, null, null);
+        replay = new ReplayService(store, history, actions, matches, mock(BoardService.class));
+
+        actionLog.append(live, 0, ActionType.SYSTEM, -1, -1, MatchService.MATCH_CREATED,
+                LogPayload.holdings(live.players()));
+    }
+
+    @Test
+    void rebuildingAScriptedMatchGivesTheLiveState() {
+        play();
+
+        MatchState rebuilt = replay.rebuild(MATCH_ID).orElseThrow();
+
+        assertEquals(live.getLogSeq(), rebuilt.getLogSeq());
+        assertEquals(live.getStatus(), rebuilt.getStatus());
+        assertEquals(live.getCurrentTurn(), rebuilt.getCurrentTurn());
+        assertEquals(live.getWinnerSeat(), rebuilt.getWinnerSeat());
+        for (int i = 0; i < live.cellCount(); i++) {
+            assertEquals(live.owner(i), rebuilt.owner(i), "owner of cell " + i);
+            assertEquals(live.hits(i), rebuilt.hits(i), "hits of cell " + i);
+        }
+        for (int seat = 1; seat <= 2; seat++) {
+            PlayerState a = live.player(seat);
+            PlayerState b = rebuilt.player(seat);
+            assertEquals(a.isAlive(), b.isAlive());
+            assertEquals(a.getLightning(), b.getLightning());
+            assertEquals(a.getWood(), b.getWood());
+            assertEquals(a.getStone(), b.getStone());
+            assertEquals(a.getGlass(), b.getGlass());
+            assertEquals(a.getForce(), b.getForce());
+        }
+    }
+
+    @Test
+    void aGapInTheLogStopsTheReplay() {
+        play();
+        log.remove(4);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> replay.rebuild(MATCH_ID));
+        assertTrue(e.getMessage().contains("skips from 4 to 6"), e.getMessage());
+    }
+
+    @Test
+    void anEntryTheRulesNoLongerProduceStopsTheReplay() {
+        play();
+        ActionRecord r = log.get(5);
+        log.set(5, new ActionRecord(r.matchId(), r.seq(), r.seat(), r.type(), r.x() + 1, r.y(), r.message(),
+                r.payload(), r.ts()));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> replay.rebuild(MATCH_ID));
+        assertTrue(e.getMessage().contains("diverged at 6"), e.getMessage());
+    }
+
+    @Test
+    void aLogThatDoesNotStartAtCreationIsNotReplayed() {
+        play();
+        log.remove(0);
+
+        assertTrue(replay.rebuild(MATCH_ID).isEmpty());
+    }
+
+    // Every command goes through the services as a request would, so the log is exactly what they append.
+    private void play() {
+        act(actions.place(MATCH_ID, at(1, 0, 0)));
+        act(actions.place(MATCH_ID, at(2, 3, 2)));
+        assertEquals(MatchStatus.RUNNING, matches.start(MATCH_ID).orElseThrow().getStatus());
+        act(actions.build(MATCH_ID, at(1, 1, 0)));
+        act(actions.attack(MATCH_ID, at(2, 1, 0)));
+        act(actions.endTurn(MATCH_ID, endTurn(1)));
+        act(actions.attack(MATCH_ID, at(2, 1, 0)));
+        act(actions.endTurn(MATCH_ID, endTurn(1)));
+        act(actions.endTurn(MATCH_ID, endTurn(2)));
+        // Rejected commands aren't logged and mustn't leave a trace in the replay either.
+        assertEquals("NOT_YOUR_TURN", actions.endTurn(MATCH_ID, endTurn(2)).getMessage());
+        assertEquals(10, live.getLogSeq());
+        assertEquals(2, live.hits(1));
+        assertEquals(0, live.player(2).getLightning());
+    }
+
+    private static void act(ActionResultResponse res) {
+        assertTrue(res.isSuccess(), res.getMessage());
+    }
+
+    private static ActionRequest at(int seat, int x, int y) {
+        ActionRequest req = new ActionRequest();
+        req.setPlayerId(seat);
+        req.setX(x);
+        req.setY(y);
+        return req;
+    }
+
+    private static EndTurnRequest endTurn(int seat) {
+        EndTurnRequest req = new EndTurnRequest();
+        req.setPlayerId(seat);
+        return req;
+    }
+}